@@ -0,0 +1,144 @@
+package towersim.benchmarks;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FleetStore;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds airports and fleets of a given size for the benchmarks.
+ */
+final class Airports {
+
+    private Airports() {
+    }
+
+    /**
+     * Returns a control tower with the given number of airplane terminals,
+     * each with the maximum number of gates.
+     *
+     * @param numTerminals number of terminals
+     * @return new control tower
+     */
+    static ControlTower tower(int numTerminals) {
+        ControlTower tower = new ControlTower();
+        int gateNumber = 0;
+        for (int t = 0; t < numTerminals; t++) {
+            Terminal terminal = new AirplaneTerminal(t);
+            for (int g = 0; g < Terminal.MAX_NUM_GATES; g++) {
+                try {
+                    terminal.addGate(new Gate(gateNumber++));
+                } catch (NoSpaceException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            tower.addTerminal(terminal);
+        }
+        return tower;
+    }
+
+    /**
+     * Adds the given number of aircraft to the tower. Aircraft are parked
+     * at gates until only one gate is left free; the rest are flying.
+     * Every second flying aircraft is on its way away from the airport, so
+     * ticking burns fuel.
+     *
+     * @param tower tower to add aircraft to
+     * @param numTerminals number of terminals the tower was built with
+     * @param fleetSize number of aircraft to add
+     */
+    static void populate(ControlTower tower, int numTerminals,
+                         int fleetSize) {
+        int gatesToFill = numTerminals * Terminal.MAX_NUM_GATES - 1;
+        for (int i = 0; i < fleetSize; i++) {
+            try {
+                tower.addAircraft(aircraft("BM" + i,
+                        firstTask(i, gatesToFill)));
+            } catch (NoSuitableGateException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds the same aircraft as populate(), but held in a FleetStore that is
+     * given to the tower with ControlTower.addFleet().
+     *
+     * @param tower tower to add aircraft to
+     * @param numTerminals number of terminals the tower was built with
+     * @param fleetSize number of aircraft to add
+     */
+    static void populateFleet(ControlTower tower, int numTerminals,
+                              int fleetSize) {
+        int gatesToFill = numTerminals * Terminal.MAX_NUM_GATES - 1;
+        FleetStore fleet = new FleetStore();
+        for (int i = 0; i < fleetSize; i++) {
+            fleet.addPassengerAircraft("BM" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    taskList(5, firstTask(i, gatesToFill)),
+                    AircraftCharacteristics.AIRBUS_A320.fuelCapacity / 2, 0);
+        }
+        try {
+            tower.addFleet(fleet);
+        } catch (NoSuitableGateException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the type of the first task of the i-th aircraft added by
+     * populate(): parked while gates are left to fill, then alternately
+     * flying away and landing.
+     */
+    private static TaskType firstTask(int i, int gatesToFill) {
+        if (i < gatesToFill) {
+            return i % 2 == 0 ? TaskType.WAIT : TaskType.LOAD;
+        }
+        return i % 2 == 0 ? TaskType.AWAY : TaskType.LAND;
+    }
+
+    /**
+     * Returns a passenger aircraft whose circular task list starts with a
+     * task of the given type.
+     *
+     * @param callsign callsign of the aircraft
+     * @param first type of the first task
+     * @return new aircraft
+     */
+    static Aircraft aircraft(String callsign, TaskType first) {
+        return new PassengerAircraft(callsign,
+                AircraftCharacteristics.AIRBUS_A320, taskList(5, first),
+                AircraftCharacteristics.AIRBUS_A320.fuelCapacity / 2, 0);
+    }
+
+    /**
+     * Returns a task list of the given length cycling AWAY, LAND, WAIT,
+     * LOAD, TAKEOFF, starting at the given type.
+     *
+     * @param length number of tasks
+     * @param first type of the first task
+     * @return new task list
+     */
+    static TaskList taskList(int length, TaskType first) {
+        TaskType[] types = TaskType.values();
+        List<Task> tasks = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            TaskType type = types[(first.ordinal() + i) % types.length];
+            tasks.add(type == TaskType.LOAD
+                    ? new Task(type, 60) : new Task(type));
+        }
+        return new TaskList(tasks);
+    }
+}
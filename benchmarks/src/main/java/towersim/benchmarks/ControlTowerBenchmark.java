@@ -0,0 +1,123 @@
+package towersim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.aircraft.Aircraft;
+import towersim.control.ControlTower;
+import towersim.ground.Gate;
+import towersim.tasks.TaskType;
+import towersim.util.NoSuitableGateException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the ControlTower operations run on every tick and arrival.
+ *
+ * JMH gives each benchmark method its own copy of this state, and the tower
+ * is rebuilt before every iteration, so aircraft added by the add
+ * benchmarks never reach tick() or the lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlTowerBenchmark {
+
+    /** Number of aircraft managed by the tower */
+    @Param({"10", "1000", "100000", "1000000"})
+    private int fleetSize;
+
+    /** Number of terminals at the airport, each with the maximum gates */
+    @Param({"1", "100", "10000"})
+    private int numTerminals;
+
+    private ControlTower tower;
+
+    /** An aircraft parked at a gate, or flying if no gate was free */
+    private Aircraft parked;
+
+    /** Flying aircraft that gates are searched for, but never added */
+    private Aircraft arriving;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        tower = Airports.tower(numTerminals);
+        Airports.populate(tower, numTerminals, fleetSize);
+        parked = tower.getAircraft(0);
+        arriving = Airports.aircraft("ARRIVE", TaskType.AWAY);
+    }
+
+    @Benchmark
+    public void tick() {
+        tower.tick();
+    }
+
+    @Benchmark
+    public Gate findUnoccupiedGate() throws NoSuitableGateException {
+        return tower.findUnoccupiedGate(arriving);
+    }
+
+    @Benchmark
+    public Gate findGateOfAircraft() {
+        return tower.findGateOfAircraft(parked);
+    }
+
+    /** Adds a new aircraft that does not need a gate. */
+    @Benchmark
+    public void addFlyingAircraft(Arrival arrival)
+            throws NoSuitableGateException {
+        tower.addAircraft(arrival.flying);
+    }
+
+    /**
+     * Adds a new aircraft that parks at the last free gate, then moves it
+     * off the gate again so the next invocation also finds the gate.
+     */
+    @Benchmark
+    public void addParkingAircraft(Arrival arrival)
+            throws NoSuitableGateException {
+        tower.addAircraft(arrival.parking);
+        tower.findGateOfAircraft(arrival.parking).aircraftLeaves();
+    }
+
+    /**
+     * Aircraft for one invocation of the add benchmarks, built before each
+     * invocation with a new callsign. Each add is then a first arrival,
+     * rather than another registration of an aircraft the tower already
+     * manages.
+     *
+     * ControlTower cannot remove aircraft, so every arrival stays managed
+     * until the tower is rebuilt for the next iteration.
+     */
+    @State(Scope.Thread)
+    public static class Arrival {
+
+        /** Number of invocations prepared so far */
+        private int count;
+
+        /** Flying aircraft added by addFlyingAircraft() */
+        private Aircraft flying;
+
+        /** Waiting aircraft added by addParkingAircraft() */
+        private Aircraft parking;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            count++;
+            flying = Airports.aircraft("ARRIVE" + count, TaskType.AWAY);
+            parking = Airports.aircraft("PARK" + count, TaskType.WAIT);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package towersim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.control.ControlTower;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ControlTower.tick() over aircraft objects with ticking the same
+ * fleet held in a FleetStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetTickBenchmark {
+
+    /** Number of terminals at the airport, each with the maximum gates */
+    private static final int NUM_TERMINALS = 100;
+
+    /** Number of aircraft managed by the tower */
+    @Param({"1000", "100000", "1000000"})
+    private int fleetSize;
+
+    /**
+     * How the aircraft are held: "objects" adds each aircraft object on its
+     * own, "fleet" adds a FleetStore with ControlTower.addFleet()
+     */
+    @Param({"objects", "fleet"})
+    private String layout;
+
+    private ControlTower tower;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        tower = Airports.tower(NUM_TERMINALS);
+        if (layout.equals("fleet")) {
+            Airports.populateFleet(tower, NUM_TERMINALS, fleetSize);
+        } else {
+            Airports.populate(tower, NUM_TERMINALS, fleetSize);
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        tower.tick();
+    }
+}
@@ -0,0 +1,66 @@
+package towersim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.control.ControlTower;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing and restoring ControlTower snapshots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    /** Number of aircraft managed by the tower */
+    @Param({"1000", "100000", "1000000"})
+    private int fleetSize;
+
+    /** Number of terminals at the airport, each with the maximum gates */
+    @Param({"100", "10000"})
+    private int numTerminals;
+
+    private ControlTower tower;
+
+    private byte[] snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        tower = Airports.tower(numTerminals);
+        Airports.populate(tower, numTerminals, fleetSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tower.snapshot(Channels.newChannel(out));
+        snapshot = out.toByteArray();
+    }
+
+    @Benchmark
+    public int snapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(snapshot.length);
+        tower.snapshot(Channels.newChannel(out));
+        return out.size();
+    }
+
+    @Benchmark
+    public ControlTower restore() throws IOException {
+        return ControlTower.restore(Channels.newChannel(
+                new ByteArrayInputStream(snapshot)));
+    }
+}
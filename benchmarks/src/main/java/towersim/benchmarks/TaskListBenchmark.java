@@ -0,0 +1,47 @@
+package towersim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks advancing through a circular TaskList.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskListBenchmark {
+
+    /** Number of tasks in the list */
+    @Param({"5", "50", "500"})
+    private int numTasks;
+
+    private TaskList taskList;
+
+    @Setup
+    public void setUp() {
+        taskList = Airports.taskList(numTasks, TaskType.AWAY);
+    }
+
+    @Benchmark
+    public Task moveToNextTask() {
+        taskList.moveToNextTask();
+        return taskList.getCurrentTask();
+    }
+}
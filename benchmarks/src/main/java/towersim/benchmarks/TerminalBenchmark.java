@@ -0,0 +1,57 @@
+package towersim.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Terminal.calculateOccupancyLevel(), which status boards call
+ * for every terminal several times a second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerminalBenchmark {
+
+    /** Number of gates in the terminal */
+    @Param({"0", "1", "6"})
+    private int numGates;
+
+    private Terminal terminal;
+
+    @Setup
+    public void setUp() throws NoSpaceException {
+        terminal = new AirplaneTerminal(1);
+        for (int g = 0; g < numGates; g++) {
+            Gate gate = new Gate(g);
+            terminal.addGate(gate);
+            //Every second gate is occupied
+            if (g % 2 == 0) {
+                gate.parkAircraft(Airports.aircraft("G" + g, TaskType.WAIT));
+            }
+        }
+    }
+
+    @Benchmark
+    public int calculateOccupancyLevel() {
+        return terminal.calculateOccupancyLevel();
+    }
+}
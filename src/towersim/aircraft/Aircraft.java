@@ -1,11 +1,17 @@
 package towersim.aircraft;
 
+import towersim.jfr.EmergencyEvent;
+import towersim.jfr.TowerEvents;
 import towersim.tasks.TaskList;
 import towersim.tasks.TaskType;
+import towersim.util.EmergencyListener;
 import towersim.util.EmergencyState;
 import towersim.util.OccupancyLevel;
 import towersim.util.Tickable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents an aircraft whose movement is managed by the system.
  */
@@ -29,6 +35,12 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
     /** Emergency status of aircraft */
     protected boolean emergencyStatus;
 
+    /** Listeners told when the emergency status changes, or null if none */
+    private List<EmergencyListener> emergencyListeners;
+
+    /** Listeners told when the fuel or cargo onboard changes, or null */
+    private List<LoadListener> loadListeners;
+
     /**
      * Creates a new aircraft with the given callsign, task list, fuel
      * capacity and amount.
@@ -121,6 +133,28 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
         return emptyWeight + fuelOnBoard;
     }
 
+    /**
+     * Returns the number of passengers onboard.
+     *
+     * Aircraft that do not carry passengers always return 0.
+     *
+     * @return number of passengers onboard
+     */
+    public int getNumPassengers() {
+        return 0;
+    }
+
+    /**
+     * Returns the amount of freight onboard, in kilograms.
+     *
+     * Aircraft that do not carry freight always return 0.
+     *
+     * @return freight onboard, in kilograms
+     */
+    public int getFreightAmount() {
+        return 0;
+    }
+
     /**
      * Returns the task list of this aircraft.
      * @return task list
@@ -156,22 +190,100 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      * its maximum fuel capacity.
      */
     public void tick() {
+        TaskType type = this.tasks.getCurrentTask().getType();
+        if (type.equals(TaskType.AWAY) || type.equals(TaskType.LOAD)) {
+            double fuelBefore = this.fuelAmount;
+            this.fuelAmount = fuelAfterTick(type, this.fuelAmount,
+                    this.getCharacteristics().fuelCapacity,
+                    type.equals(TaskType.LOAD) ? this.getRefuelPerTick() : 0);
+            this.fireLoadChanged(this.fuelAmount - fuelBefore, 0, 0);
+        }
+    }
+
+    /**
+     * Advances the aircraft's state by the given number of ticks, with the
+     * same result as calling tick() that many times.
+     *
+     * The current task does not change while ticking, so every quantity
+     * updated by tick() only moves towards the bound it is clamped to (no
+     * fuel while AWAY, full fuel and cargo while LOAD). Once tick() no
+     * longer changes the aircraft's state, the remaining ticks are skipped.
+     * This means large tick counts cost no more than a handful of ticks.
+     *
+     * @param ticks number of ticks to advance by
+     * @throws IllegalArgumentException if ticks < 0
+     */
+    public void tick(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = 0; i < ticks && !isSettled(); i++) {
+            this.tick();
+        }
+    }
+
+    /**
+     * Returns true if calling tick() while on the current task would leave
+     * this aircraft's state unchanged.
+     *
+     * Subclasses that update more state in tick() should extend this check.
+     *
+     * @return whether the aircraft's state is fixed under tick()
+     */
+    protected boolean isSettled() {
+        TaskType type = this.tasks.getCurrentTask().getType();
+        if (type.equals(TaskType.AWAY) || type.equals(TaskType.LOAD)) {
+            double fuel = this.getFuelAmount();
+            return fuelAfterTick(type, fuel,
+                    this.getCharacteristics().fuelCapacity,
+                    type.equals(TaskType.LOAD) ? this.getRefuelPerTick() : 0)
+                    == fuel;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of fuel added on each tick while loading, equal to
+     * the fuel capacity divided by getLoadingTime().
+     *
+     * Aircraft of this package look the amount up in a LoadingTable.
+     *
+     * @return fuel added per LOAD tick, in litres
+     */
+    double getRefuelPerTick() {
+        return this.getCharacteristics().fuelCapacity
+                / this.getLoadingTime();
+    }
+
+    /**
+     * Returns the amount of fuel onboard after one tick, as described in
+     * tick().
+     *
+     * @param type type of the aircraft's current task
+     * @param fuelAmount fuel onboard before the tick, in litres
+     * @param fuelCapacity maximum fuel capacity, in litres
+     * @param refuelPerTick fuel added per tick if the task is LOAD, in
+     *     litres
+     * @return fuel onboard after the tick, in litres
+     */
+    static double fuelAfterTick(TaskType type, double fuelAmount,
+                                double fuelCapacity, double refuelPerTick) {
         //Burn Fuel
-        if (this.tasks.getCurrentTask().getType().equals(TaskType.AWAY)) {
-            this.fuelAmount -= (0.1 * this.getCharacteristics().fuelCapacity);
-            if (this.fuelAmount < 0) {
-                this.fuelAmount = 0;
+        if (type == TaskType.AWAY) {
+            fuelAmount -= (0.1 * fuelCapacity);
+            if (fuelAmount < 0) {
+                fuelAmount = 0;
             }
         }
 
         //Refuel
-        if (this.tasks.getCurrentTask().getType().equals(TaskType.LOAD)) {
-            this.fuelAmount += (this.getCharacteristics().fuelCapacity
-                    / this.getLoadingTime());
-            if (this.fuelAmount > this.getCharacteristics().fuelCapacity) {
-                this.fuelAmount = this.getCharacteristics().fuelCapacity;
+        if (type == TaskType.LOAD) {
+            fuelAmount += refuelPerTick;
+            if (fuelAmount > fuelCapacity) {
+                fuelAmount = fuelCapacity;
             }
         }
+        return fuelAmount;
     }
 
     /**
@@ -215,7 +327,10 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
      * Declares a state of emergency.
      */
     public void declareEmergency() {
-        this.emergencyStatus = true;
+        if (!this.emergencyStatus) {
+            this.emergencyStatus = true;
+            this.fireEmergencyChanged();
+        }
     }
 
     /**
@@ -225,6 +340,68 @@ public abstract class Aircraft implements OccupancyLevel, Tickable, EmergencySta
     public void clearEmergency() {
         if (this.emergencyStatus) {
             this.emergencyStatus = false;
+            this.fireEmergencyChanged();
+        }
+    }
+
+    /**
+     * Registers a listener to be told whenever this aircraft enters or leaves
+     * a state of emergency.
+     *
+     * @param listener listener to register
+     */
+    public void addEmergencyListener(EmergencyListener listener) {
+        if (this.emergencyListeners == null) {
+            this.emergencyListeners = new ArrayList<>(1);
+        }
+        this.emergencyListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener to be told whenever the fuel, passengers or
+     * freight onboard this aircraft change.
+     *
+     * @param listener listener to register
+     */
+    public void addLoadListener(LoadListener listener) {
+        if (this.loadListeners == null) {
+            this.loadListeners = new ArrayList<>(1);
+        }
+        this.loadListeners.add(listener);
+    }
+
+    /**
+     * Tells all load listeners that the load onboard changed by the given
+     * amounts. Nothing is done if all the amounts are zero.
+     *
+     * @param fuelDelta change in fuel onboard, in litres
+     * @param passengerDelta change in number of passengers onboard
+     * @param freightDelta change in freight onboard, in kilograms
+     */
+    void fireLoadChanged(double fuelDelta, int passengerDelta,
+                         int freightDelta) {
+        if (this.loadListeners != null && (fuelDelta != 0
+                || passengerDelta != 0 || freightDelta != 0)) {
+            for (LoadListener listener : this.loadListeners) {
+                listener.loadChanged(this, fuelDelta, passengerDelta,
+                        freightDelta);
+            }
+        }
+    }
+
+    /** Tells all emergency listeners that the state of emergency changed. */
+    private void fireEmergencyChanged() {
+        if (TowerEvents.isEmergencyEnabled()) {
+            EmergencyEvent event = new EmergencyEvent();
+            event.subject = "aircraft";
+            event.identifier = this.callsign;
+            event.declared = this.emergencyStatus;
+            event.commit();
+        }
+        if (this.emergencyListeners != null) {
+            for (EmergencyListener listener : this.emergencyListeners) {
+                listener.emergencyChanged(this);
+            }
         }
     }
 
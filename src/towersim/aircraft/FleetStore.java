@@ -0,0 +1,399 @@
+package towersim.aircraft;
+
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.Tickable;
+
+import java.util.Arrays;
+
+/**
+ * Stores the changing state of a whole fleet of aircraft in parallel arrays
+ * indexed by slot, instead of in one object per aircraft.
+ *
+ * Aircraft are added with addPassengerAircraft() or addFreightAircraft(),
+ * which return a handle that can be used anywhere an Aircraft is expected.
+ * Handles read and write their state through this store, so ticking the
+ * store with tick() updates every aircraft in a single pass over the arrays.
+ * Each aircraft's current task type and load percentage are copied into the
+ * store as its task list moves on, so the pass does not visit task lists.
+ *
+ * A whole store can be given to ControlTower.addFleet(FleetStore), which
+ * then ticks its aircraft with tick(int, int, long) rather than one handle
+ * at a time.
+ */
+public class FleetStore implements Tickable {
+
+    /** Number of slots allocated by a newly created store */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** All aircraft models, indexed by ordinal */
+    private static final AircraftCharacteristics[] MODELS =
+            AircraftCharacteristics.values();
+
+    /** All task types, indexed by ordinal */
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    /** Ordinal of the AWAY task type */
+    private static final byte AWAY = (byte) TaskType.AWAY.ordinal();
+
+    /** Ordinal of the LOAD task type */
+    private static final byte LOAD = (byte) TaskType.LOAD.ordinal();
+
+    /** Ordinal of each aircraft's characteristics */
+    private byte[] models;
+
+    /** Whether each aircraft carries freight rather than passengers */
+    private boolean[] carriesFreight;
+
+    /** Fuel onboard each aircraft, in litres */
+    private double[] fuelAmounts;
+
+    /** Passengers or kilograms of freight onboard each aircraft */
+    private int[] loads;
+
+    /** Ordinal of the type of each aircraft's current task */
+    private byte[] taskTypes;
+
+    /** Load percentage of each aircraft's current task */
+    private int[] loadPercents;
+
+    /** Handle for each aircraft */
+    private Handle[] handles;
+
+    /** Number of slots in use */
+    private int size;
+
+    /**
+     * Creates a new, empty FleetStore.
+     */
+    public FleetStore() {
+        models = new byte[INITIAL_CAPACITY];
+        carriesFreight = new boolean[INITIAL_CAPACITY];
+        fuelAmounts = new double[INITIAL_CAPACITY];
+        loads = new int[INITIAL_CAPACITY];
+        taskTypes = new byte[INITIAL_CAPACITY];
+        loadPercents = new int[INITIAL_CAPACITY];
+        handles = new Handle[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Adds a passenger aircraft to the store and returns its handle.
+     *
+     * The arguments are validated in the same way as by the
+     * PassengerAircraft constructor.
+     *
+     * @param callsign unique callsign
+     * @param characteristics characteristics that describe this aircraft
+     * @param tasks task list to be used by aircraft
+     * @param fuelAmount current amount of fuel onboard, in litres
+     * @param numPassengers current number of passengers onboard
+     * @return handle of the new aircraft
+     * @throws IllegalArgumentException if fuelAmount or numPassengers is
+     *     negative or above the aircraft's capacity
+     */
+    public Aircraft addPassengerAircraft(String callsign,
+                                         AircraftCharacteristics characteristics,
+                                         TaskList tasks, double fuelAmount,
+                                         int numPassengers) {
+        if (numPassengers < 0
+                || numPassengers > characteristics.passengerCapacity) {
+            throw new IllegalArgumentException();
+        }
+        return add(callsign, characteristics, tasks, fuelAmount,
+                numPassengers, false);
+    }
+
+    /**
+     * Adds a freight aircraft to the store and returns its handle.
+     *
+     * The arguments are validated in the same way as by the FreightAircraft
+     * constructor.
+     *
+     * @param callsign unique callsign
+     * @param characteristics characteristics that describe this aircraft
+     * @param tasks task list to be used by aircraft
+     * @param fuelAmount current amount of fuel onboard, in litres
+     * @param freightAmount current amount of freight onboard, in kilograms
+     * @return handle of the new aircraft
+     * @throws IllegalArgumentException if fuelAmount or freightAmount is
+     *     negative or above the aircraft's capacity
+     */
+    public Aircraft addFreightAircraft(String callsign,
+                                       AircraftCharacteristics characteristics,
+                                       TaskList tasks, double fuelAmount,
+                                       int freightAmount) {
+        if (freightAmount < 0
+                || freightAmount > characteristics.freightCapacity) {
+            throw new IllegalArgumentException();
+        }
+        return add(callsign, characteristics, tasks, fuelAmount,
+                freightAmount, true);
+    }
+
+    /**
+     * Returns the number of aircraft in this store.
+     *
+     * @return number of aircraft
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the handle of the aircraft in the given slot.
+     *
+     * @param slot slot of the aircraft, from 0 to size() - 1
+     * @return handle of the aircraft
+     * @throws IndexOutOfBoundsException if the slot is not in use
+     */
+    public Aircraft get(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return handles[slot];
+    }
+
+    /**
+     * Returns the store holding the given aircraft's state.
+     *
+     * @param aircraft aircraft to look up
+     * @return store the aircraft was added to, or null if the aircraft is
+     *     not a handle of any store
+     */
+    public static FleetStore storeOf(Aircraft aircraft) {
+        return aircraft instanceof Handle ? ((Handle) aircraft).store : null;
+    }
+
+    /**
+     * Ticks every aircraft in the store.
+     *
+     * The result is the same as calling tick() on a PassengerAircraft or
+     * FreightAircraft with the same state.
+     */
+    @Override
+    public void tick() {
+        tick(0, size, 1);
+    }
+
+    /**
+     * Advances the aircraft in the given range of slots by the given number
+     * of ticks, with the same result as calling tick(long) on each of their
+     * handles.
+     *
+     * Only the arrays are read: aircraft whose current task is not AWAY or
+     * LOAD are skipped after checking one byte. Different ranges may be
+     * ticked on different threads at once.
+     *
+     * @param from first slot to tick
+     * @param to slot after the last slot to tick
+     * @param ticks number of ticks to advance by
+     * @throws IndexOutOfBoundsException if the range is not within 0 to
+     *     size()
+     * @throws IllegalArgumentException if ticks < 0
+     */
+    public void tick(int from, int to, long ticks) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (ticks < 0) {
+            throw new IllegalArgumentException();
+        }
+        for (int slot = from; slot < to; slot++) {
+            byte type = taskTypes[slot];
+            if (type != AWAY && type != LOAD) {
+                continue;
+            }
+            if (ticks == 1) {
+                tickSlot(slot);
+                continue;
+            }
+            for (long i = 0; i < ticks && !isSettled(slot); i++) {
+                tickSlot(slot);
+            }
+        }
+    }
+
+    /** Adds an aircraft whose load has already been validated. */
+    private Aircraft add(String callsign,
+                         AircraftCharacteristics characteristics,
+                         TaskList tasks, double fuelAmount, int load,
+                         boolean freight) {
+        if (fuelAmount < 0 || fuelAmount > characteristics.fuelCapacity) {
+            throw new IllegalArgumentException();
+        }
+        int slot = size;
+        Handle handle = new Handle(callsign, characteristics, tasks, this,
+                slot);
+        if (size == handles.length) {
+            int capacity = size * 2;
+            models = Arrays.copyOf(models, capacity);
+            carriesFreight = Arrays.copyOf(carriesFreight, capacity);
+            fuelAmounts = Arrays.copyOf(fuelAmounts, capacity);
+            loads = Arrays.copyOf(loads, capacity);
+            taskTypes = Arrays.copyOf(taskTypes, capacity);
+            loadPercents = Arrays.copyOf(loadPercents, capacity);
+            handles = Arrays.copyOf(handles, capacity);
+        }
+        models[slot] = (byte) characteristics.ordinal();
+        carriesFreight[slot] = freight;
+        fuelAmounts[slot] = fuelAmount;
+        loads[slot] = load;
+        handles[slot] = handle;
+        updateTask(slot, tasks.getCurrentTask());
+        tasks.addTaskListener((taskList, previousTask) ->
+                updateTask(slot, taskList.getCurrentTask()));
+        size++;
+        return handle;
+    }
+
+    /** Copies the given current task into the arrays for the slot. */
+    private void updateTask(int slot, Task task) {
+        taskTypes[slot] = (byte) task.getType().ordinal();
+        loadPercents[slot] = task.getLoadPercent();
+    }
+
+    /** Returns the loading time of the aircraft in the given slot. */
+    private int loadingTime(int slot) {
+        return LoadingTable.of(carriesFreight[slot]).loadingTime(
+                MODELS[models[slot]], loadPercents[slot]);
+    }
+
+    /** Returns the load added on each tick by the slot's LOAD task. */
+    private int loadPerTick(int slot) {
+        return LoadingTable.of(carriesFreight[slot]).loadPerTick(
+                MODELS[models[slot]], loadPercents[slot]);
+    }
+
+    /** Returns the load onboard the slot's aircraft after one LOAD tick. */
+    private int loadAfterTick(int slot) {
+        AircraftCharacteristics model = MODELS[models[slot]];
+        if (carriesFreight[slot]) {
+            return FreightAircraft.freightAfterTick(loads[slot],
+                    model.freightCapacity, loadPerTick(slot));
+        }
+        return PassengerAircraft.passengersAfterTick(loads[slot],
+                model.passengerCapacity, loadPerTick(slot));
+    }
+
+    /** Returns the fuel onboard the slot's aircraft after one tick. */
+    private double fuelAfterTick(int slot) {
+        AircraftCharacteristics model = MODELS[models[slot]];
+        TaskType type = TASK_TYPES[taskTypes[slot]];
+        double refuelPerTick = 0;
+        if (taskTypes[slot] == LOAD) {
+            refuelPerTick = LoadingTable.of(carriesFreight[slot])
+                    .refuelPerTick(model, loadPercents[slot]);
+        }
+        return Aircraft.fuelAfterTick(type, fuelAmounts[slot],
+                model.fuelCapacity, refuelPerTick);
+    }
+
+    /**
+     * Returns true if ticking the aircraft in the given slot would leave its
+     * state unchanged.
+     */
+    private boolean isSettled(int slot) {
+        byte type = taskTypes[slot];
+        if (type != AWAY && type != LOAD) {
+            return true;
+        }
+        return fuelAfterTick(slot) == fuelAmounts[slot]
+                && (type != LOAD || loadAfterTick(slot) == loads[slot]);
+    }
+
+    /** Ticks the aircraft in the given slot. */
+    private void tickSlot(int slot) {
+        byte type = taskTypes[slot];
+        if (type != AWAY && type != LOAD) {
+            return;
+        }
+        double fuelBefore = fuelAmounts[slot];
+        int loadBefore = loads[slot];
+        fuelAmounts[slot] = fuelAfterTick(slot);
+        if (type == LOAD) {
+            loads[slot] = loadAfterTick(slot);
+        }
+        int loadDelta = loads[slot] - loadBefore;
+        handles[slot].fireLoadChanged(fuelAmounts[slot] - fuelBefore,
+                carriesFreight[slot] ? 0 : loadDelta,
+                carriesFreight[slot] ? loadDelta : 0);
+    }
+
+    /**
+     * An aircraft whose fuel and load are held in a FleetStore.
+     *
+     * The fuelAmount field inherited from Aircraft is left at zero and never
+     * read: every method that uses the fuel onboard reads the store instead.
+     */
+    private static class Handle extends Aircraft {
+
+        /** store holding this aircraft's state */
+        private final FleetStore store;
+
+        /** slot of this aircraft in the store */
+        private final int slot;
+
+        private Handle(String callsign,
+                       AircraftCharacteristics characteristics,
+                       TaskList tasks, FleetStore store, int slot) {
+            super(callsign, characteristics, tasks, 0);
+            this.store = store;
+            this.slot = slot;
+        }
+
+        @Override
+        public double getFuelAmount() {
+            return store.fuelAmounts[slot];
+        }
+
+        @Override
+        public int getNumPassengers() {
+            return store.carriesFreight[slot] ? 0 : store.loads[slot];
+        }
+
+        @Override
+        public int getFreightAmount() {
+            return store.carriesFreight[slot] ? store.loads[slot] : 0;
+        }
+
+        @Override
+        public double getTotalWeight() {
+            double loadWeight = store.carriesFreight[slot]
+                    ? store.loads[slot]
+                    : store.loads[slot] * PassengerAircraft.AVG_PASSENGER_WEIGHT;
+            return loadWeight + super.getTotalWeight();
+        }
+
+        @Override
+        public int getLoadingTime() {
+            return store.loadingTime(slot);
+        }
+
+        @Override
+        double getRefuelPerTick() {
+            return LoadingTable.of(store.carriesFreight[slot]).refuelPerTick(
+                    characteristics, store.loadPercents[slot]);
+        }
+
+        @Override
+        public int calculateOccupancyLevel() {
+            int capacity = store.carriesFreight[slot]
+                    ? characteristics.freightCapacity
+                    : characteristics.passengerCapacity;
+            return (int) Math.round((double) store.loads[slot] / capacity
+                    * 100);
+        }
+
+        @Override
+        public void tick() {
+            store.tickSlot(slot);
+        }
+
+        @Override
+        protected boolean isSettled() {
+            return store.isSettled(slot);
+        }
+    }
+}
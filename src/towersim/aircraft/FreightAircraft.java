@@ -61,6 +61,16 @@ public class FreightAircraft extends Aircraft {
         return this.freightAmount + super.getTotalWeight();
     }
 
+    /**
+     * Returns the amount of freight onboard, in kilograms.
+     *
+     * @return freight onboard, in kilograms
+     */
+    @Override
+    public int getFreightAmount() {
+        return this.freightAmount;
+    }
+
     /**
      * Returns the number of ticks required to load the aircraft at the gate.
      *
@@ -73,10 +83,26 @@ public class FreightAircraft extends Aircraft {
      */
     @Override
     public int getLoadingTime() {
+        return LoadingTable.FREIGHT.loadingTime(this.characteristics,
+                this.tasks.getCurrentTask().getLoadPercent());
+    }
 
-        int freightCapacity = this.characteristics.freightCapacity;
-        int loadPercentage = this.tasks.getCurrentTask().getLoadPercent();
+    @Override
+    double getRefuelPerTick() {
+        return LoadingTable.FREIGHT.refuelPerTick(this.characteristics,
+                this.tasks.getCurrentTask().getLoadPercent());
+    }
 
+    /**
+     * Returns the loading time for an aircraft with the given freight
+     * capacity and load percentage, as described in getLoadingTime().
+     * Used to fill LoadingTable, which should be used instead.
+     *
+     * @param freightCapacity maximum freight capacity, in kilograms
+     * @param loadPercentage load percentage of the current task
+     * @return loading time in ticks
+     */
+    static int loadingTime(int freightCapacity, int loadPercentage) {
         //Weight of freight to be loaded in kg.
         int freightLoaded =
                 (int) Math.round((double) freightCapacity * ((double) loadPercentage / 100));
@@ -137,22 +163,70 @@ public class FreightAircraft extends Aircraft {
         //Aircraft's current task
         Task currentTask = this.getTaskList().getCurrentTask();
 
+        if (currentTask.getType().equals(TaskType.LOAD)) {
+            int freightBefore = this.freightAmount;
+            this.freightAmount = freightAfterTick(this.freightAmount,
+                    this.maxFreight, LoadingTable.FREIGHT.loadPerTick(
+                            this.characteristics,
+                            currentTask.getLoadPercent()));
+            this.fireLoadChanged(0, 0, this.freightAmount - freightBefore);
+        }
+    }
+
+    /**
+     * Returns true if calling tick() while on the current task would leave
+     * this aircraft's fuel and freight unchanged.
+     *
+     * @return whether the aircraft's state is fixed under tick()
+     */
+    @Override
+    protected boolean isSettled() {
+        if (!super.isSettled()) {
+            return false;
+        }
+        Task currentTask = this.getTaskList().getCurrentTask();
+        return !currentTask.getType().equals(TaskType.LOAD)
+                || freightAfterTick(this.freightAmount, this.maxFreight,
+                        LoadingTable.FREIGHT.loadPerTick(this.characteristics,
+                                currentTask.getLoadPercent()))
+                == this.freightAmount;
+    }
+
+    /**
+     * Returns the amount of freight loaded on each LOAD tick, as described
+     * in tick(). Used to fill LoadingTable, which should be used instead.
+     *
+     * @param maxFreight maximum freight capacity, in kilograms
+     * @param loadPercent load percentage of the current task
+     * @param loadingTime loading time of the current task, in ticks
+     * @return freight loaded per tick, in kilograms
+     */
+    static int freightPerTick(int maxFreight, int loadPercent,
+                              int loadingTime) {
         //Variables for weight calculation
         int loadPercentage =
-                (int) Math.round((double) currentTask.getLoadPercent() * this.maxFreight);
-        int loadingTime = this.getLoadingTime();
-
+                (int) Math.round((double) loadPercent * maxFreight);
 
         //Weight of cargo to be loaded to aircraft
-        int loadFreight =
-                (int) Math.round((double) loadPercentage / loadingTime);
+        return (int) Math.round((double) loadPercentage / loadingTime);
+    }
 
-        if (currentTask.getType().equals(TaskType.LOAD)) {
-            this.freightAmount += loadFreight;
-            //Maximum capacity reached
-            if (this.freightAmount > this.maxFreight) {
-                this.freightAmount = this.maxFreight;
-            }
+    /**
+     * Returns the amount of freight onboard after one LOAD tick, as
+     * described in tick().
+     *
+     * @param freightAmount freight onboard before the tick, in kilograms
+     * @param maxFreight maximum freight capacity, in kilograms
+     * @param loadFreight freight loaded per tick, from LoadingTable
+     * @return freight onboard after the tick, in kilograms
+     */
+    static int freightAfterTick(int freightAmount, int maxFreight,
+                                int loadFreight) {
+        freightAmount += loadFreight;
+        //Maximum capacity reached
+        if (freightAmount > maxFreight) {
+            freightAmount = maxFreight;
         }
+        return freightAmount;
     }
 }
@@ -0,0 +1,24 @@
+package towersim.aircraft;
+
+/**
+ * Denotes an object that is told when the fuel or cargo onboard an aircraft
+ * changes.
+ * Listeners are registered with Aircraft.addLoadListener(LoadListener).
+ *
+ * When aircraft are ticked in parallel, listeners may be called from several
+ * threads at once.
+ */
+public interface LoadListener {
+
+    /**
+     * Called after the fuel, passengers or freight onboard the given
+     * aircraft have changed.
+     *
+     * @param aircraft aircraft whose load changed
+     * @param fuelDelta change in fuel onboard, in litres
+     * @param passengerDelta change in number of passengers onboard
+     * @param freightDelta change in freight onboard, in kilograms
+     */
+    void loadChanged(Aircraft aircraft, double fuelDelta, int passengerDelta,
+                     int freightDelta);
+}
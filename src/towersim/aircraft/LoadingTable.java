@@ -0,0 +1,138 @@
+package towersim.aircraft;
+
+/**
+ * Precomputed loading times and per-tick load and refuel amounts for every
+ * aircraft model and load percentage from 0 to MAX_LOAD_PERCENT.
+ *
+ * Loading times involve a logarithm and several roundings, and are needed
+ * on every tick of every loading aircraft. Computing them once per
+ * (model, load percentage) pair turns the LOAD path into array lookups.
+ * Load percentages outside the table are computed on demand, with the same
+ * results.
+ *
+ * There is one table for passenger aircraft and one for freight aircraft,
+ * as they compute loading times differently.
+ */
+final class LoadingTable {
+
+    /** Largest load percentage held in the tables */
+    static final int MAX_LOAD_PERCENT = 100;
+
+    /** All aircraft models, indexed by ordinal */
+    private static final AircraftCharacteristics[] MODELS =
+            AircraftCharacteristics.values();
+
+    /** Table for PassengerAircraft */
+    static final LoadingTable PASSENGER = new LoadingTable(false);
+
+    /** Table for FreightAircraft */
+    static final LoadingTable FREIGHT = new LoadingTable(true);
+
+    /** whether this table is for freight rather than passengers */
+    private final boolean freight;
+
+    /** loading time, in ticks, indexed by model ordinal and load percent */
+    private final int[][] loadingTimes;
+
+    /** passengers or kilograms of freight loaded per tick */
+    private final int[][] loadsPerTick;
+
+    /** litres of fuel added per tick */
+    private final double[][] refuelsPerTick;
+
+    private LoadingTable(boolean freight) {
+        this.freight = freight;
+        this.loadingTimes = new int[MODELS.length][MAX_LOAD_PERCENT + 1];
+        this.loadsPerTick = new int[MODELS.length][MAX_LOAD_PERCENT + 1];
+        this.refuelsPerTick = new double[MODELS.length][MAX_LOAD_PERCENT + 1];
+        for (AircraftCharacteristics model : MODELS) {
+            int m = model.ordinal();
+            for (int percent = 0; percent <= MAX_LOAD_PERCENT; percent++) {
+                int loadingTime = this.computeLoadingTime(model, percent);
+                this.loadingTimes[m][percent] = loadingTime;
+                this.loadsPerTick[m][percent] =
+                        this.computeLoadPerTick(model, percent, loadingTime);
+                this.refuelsPerTick[m][percent] =
+                        model.fuelCapacity / loadingTime;
+            }
+        }
+    }
+
+    /**
+     * Returns the table for passenger or freight aircraft.
+     * @param freight true for freight aircraft; false for passenger aircraft
+     * @return loading table
+     */
+    static LoadingTable of(boolean freight) {
+        return freight ? FREIGHT : PASSENGER;
+    }
+
+    /**
+     * Returns the loading time of a LOAD task.
+     * @param model model of the aircraft
+     * @param loadPercent load percentage of the task
+     * @return loading time, in ticks
+     */
+    int loadingTime(AircraftCharacteristics model, int loadPercent) {
+        if (inTable(loadPercent)) {
+            return this.loadingTimes[model.ordinal()][loadPercent];
+        }
+        return this.computeLoadingTime(model, loadPercent);
+    }
+
+    /**
+     * Returns the number of passengers, or kilograms of freight, loaded on
+     * each tick of a LOAD task.
+     * @param model model of the aircraft
+     * @param loadPercent load percentage of the task
+     * @return load added per tick
+     */
+    int loadPerTick(AircraftCharacteristics model, int loadPercent) {
+        if (inTable(loadPercent)) {
+            return this.loadsPerTick[model.ordinal()][loadPercent];
+        }
+        return this.computeLoadPerTick(model, loadPercent,
+                this.computeLoadingTime(model, loadPercent));
+    }
+
+    /**
+     * Returns the amount of fuel added on each tick of a LOAD task.
+     * @param model model of the aircraft
+     * @param loadPercent load percentage of the task
+     * @return fuel added per tick, in litres
+     */
+    double refuelPerTick(AircraftCharacteristics model, int loadPercent) {
+        if (inTable(loadPercent)) {
+            return this.refuelsPerTick[model.ordinal()][loadPercent];
+        }
+        return model.fuelCapacity / this.computeLoadingTime(model,
+                loadPercent);
+    }
+
+    /** Returns true if the load percentage has entries in the tables. */
+    private static boolean inTable(int loadPercent) {
+        return loadPercent >= 0 && loadPercent <= MAX_LOAD_PERCENT;
+    }
+
+    /** Computes a loading time with the formula of the aircraft class. */
+    private int computeLoadingTime(AircraftCharacteristics model,
+                                   int loadPercent) {
+        if (this.freight) {
+            return FreightAircraft.loadingTime(model.freightCapacity,
+                    loadPercent);
+        }
+        return PassengerAircraft.loadingTime(model.passengerCapacity,
+                loadPercent);
+    }
+
+    /** Computes a load per tick with the formula of the aircraft class. */
+    private int computeLoadPerTick(AircraftCharacteristics model,
+                                   int loadPercent, int loadingTime) {
+        if (this.freight) {
+            return FreightAircraft.freightPerTick(model.freightCapacity,
+                    loadPercent, loadingTime);
+        }
+        return PassengerAircraft.passengersPerTick(model.passengerCapacity,
+                loadPercent, loadingTime);
+    }
+}
@@ -65,6 +65,16 @@ public class PassengerAircraft extends Aircraft {
         return (this.numPassengers * AVG_PASSENGER_WEIGHT) + super.getTotalWeight();
     }
 
+    /**
+     * Returns the number of passengers onboard.
+     *
+     * @return number of passengers onboard
+     */
+    @Override
+    public int getNumPassengers() {
+        return this.numPassengers;
+    }
+
     /**
      * Returns the number of ticks required to load the aircraft at the gate.
      *
@@ -90,10 +100,26 @@ public class PassengerAircraft extends Aircraft {
      */
     @Override
     public int getLoadingTime() {
+        return LoadingTable.PASSENGER.loadingTime(this.getCharacteristics(),
+                this.tasks.getCurrentTask().getLoadPercent());
+    }
 
-        int passengerCapacity = this.getCharacteristics().passengerCapacity;
-        int loadPercentage = this.tasks.getCurrentTask().getLoadPercent();
+    @Override
+    double getRefuelPerTick() {
+        return LoadingTable.PASSENGER.refuelPerTick(this.getCharacteristics(),
+                this.tasks.getCurrentTask().getLoadPercent());
+    }
 
+    /**
+     * Returns the loading time for an aircraft with the given passenger
+     * capacity and load percentage, as described in getLoadingTime().
+     * Used to fill LoadingTable, which should be used instead.
+     *
+     * @param passengerCapacity maximum number of passengers
+     * @param loadPercentage load percentage of the current task
+     * @return loading time in ticks
+     */
+    static int loadingTime(int passengerCapacity, int loadPercentage) {
         //Weight of passengers to be loaded
         int passengersLoaded =
                 (int) (Math.log10(Math.round((double) passengerCapacity
@@ -156,22 +182,72 @@ public class PassengerAircraft extends Aircraft {
         //Aircraft's current task
         Task currentTask = this.getTaskList().getCurrentTask();
 
+        if (currentTask.getType().equals(TaskType.LOAD)) {
+            int passengersBefore = this.numPassengers;
+            this.numPassengers = passengersAfterTick(this.numPassengers,
+                    this.maxPassengers, LoadingTable.PASSENGER.loadPerTick(
+                            this.getCharacteristics(),
+                            currentTask.getLoadPercent()));
+            this.fireLoadChanged(0, this.numPassengers - passengersBefore, 0);
+        }
+    }
+
+    /**
+     * Returns true if calling tick() while on the current task would leave
+     * this aircraft's fuel and passengers unchanged.
+     *
+     * @return whether the aircraft's state is fixed under tick()
+     */
+    @Override
+    protected boolean isSettled() {
+        if (!super.isSettled()) {
+            return false;
+        }
+        Task currentTask = this.getTaskList().getCurrentTask();
+        return !currentTask.getType().equals(TaskType.LOAD)
+                || passengersAfterTick(this.numPassengers, this.maxPassengers,
+                        LoadingTable.PASSENGER.loadPerTick(
+                                this.getCharacteristics(),
+                                currentTask.getLoadPercent()))
+                == this.numPassengers;
+    }
+
+    /**
+     * Returns the number of passengers loaded on each LOAD tick, as
+     * described in tick(). Used to fill LoadingTable, which should be used
+     * instead.
+     *
+     * @param maxPassengers maximum passenger capacity
+     * @param loadPercent load percentage of the current task
+     * @param loadingTime loading time of the current task, in ticks
+     * @return passengers loaded per tick
+     */
+    static int passengersPerTick(int maxPassengers, int loadPercent,
+                                 int loadingTime) {
         //Variables for weight calculation
         int loadPercentage =
-                (int) Math.round((double) currentTask.getLoadPercent()
-                        * this.maxPassengers);
-        int loadingTime = this.getLoadingTime();
+                (int) Math.round((double) loadPercent * maxPassengers);
 
         //Weight of passengers to be loaded to aircraft
-        int loadPassengers =
-                (int) Math.round((double) loadPercentage / loadingTime);
+        return (int) Math.round((double) loadPercentage / loadingTime);
+    }
 
-        if (currentTask.getType().equals(TaskType.LOAD)) {
-            this.numPassengers += loadPassengers;
-            //Maximum capacity reached
-            if (this.numPassengers > this.maxPassengers) {
-                this.numPassengers = this.maxPassengers;
-            }
+    /**
+     * Returns the number of passengers onboard after one LOAD tick, as
+     * described in tick().
+     *
+     * @param numPassengers passengers onboard before the tick
+     * @param maxPassengers maximum passenger capacity
+     * @param loadPassengers passengers loaded per tick, from LoadingTable
+     * @return passengers onboard after the tick
+     */
+    static int passengersAfterTick(int numPassengers, int maxPassengers,
+                                   int loadPassengers) {
+        numPassengers += loadPassengers;
+        //Maximum capacity reached
+        if (numPassengers > maxPassengers) {
+            numPassengers = maxPassengers;
         }
+        return numPassengers;
     }
 }
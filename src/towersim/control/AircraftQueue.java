@@ -0,0 +1,250 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders aircraft waiting to be served, such as aircraft waiting to land or
+ * take off.
+ *
+ * Each aircraft is given a priority by getPriority(Aircraft) when it joins
+ * the queue or is updated; aircraft with lower priority values are served
+ * first, and ties are broken by the order in which aircraft joined the queue.
+ *
+ * The queue is a binary heap, so adding, removing and re-ordering an
+ * aircraft take O(log n) time. Its methods are synchronized, so aircraft may
+ * join and leave from several threads at once.
+ */
+public abstract class AircraftQueue {
+
+    /** Number of heap slots allocated by a newly created queue */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Heap of queued aircraft; the next to be served is at index 0 */
+    private Entry[] heap;
+
+    /** Number of aircraft in the queue */
+    private int size;
+
+    /** Entry of each queued aircraft */
+    private final Map<Aircraft, Entry> entries;
+
+    /** Number given to the next aircraft to join the queue */
+    private long nextArrival;
+
+    /**
+     * Creates a new, empty AircraftQueue.
+     */
+    protected AircraftQueue() {
+        this.heap = new Entry[INITIAL_CAPACITY];
+        this.size = 0;
+        this.entries = new HashMap<>();
+        this.nextArrival = 0;
+    }
+
+    /**
+     * Adds the given aircraft to the queue.
+     * If the aircraft is already queued, no action is taken.
+     * @param aircraft aircraft to add
+     */
+    public synchronized void addAircraft(Aircraft aircraft) {
+        if (this.entries.containsKey(aircraft)) {
+            return;
+        }
+        Entry entry = new Entry(aircraft, this.nextArrival++,
+                this.getPriority(aircraft));
+        this.entries.put(aircraft, entry);
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        }
+        entry.index = this.size;
+        this.heap[this.size++] = entry;
+        this.siftUp(entry.index);
+    }
+
+    /**
+     * Returns the aircraft that should be served next, without removing it.
+     * @return next aircraft to be served, or null if the queue is empty
+     */
+    public synchronized Aircraft peekAircraft() {
+        return this.size == 0 ? null : this.heap[0].aircraft;
+    }
+
+    /**
+     * Removes and returns the aircraft that should be served next.
+     * @return next aircraft to be served, or null if the queue is empty
+     */
+    public synchronized Aircraft removeAircraft() {
+        if (this.size == 0) {
+            return null;
+        }
+        Aircraft aircraft = this.heap[0].aircraft;
+        this.removeAircraft(aircraft);
+        return aircraft;
+    }
+
+    /**
+     * Removes the given aircraft from the queue.
+     * @param aircraft aircraft to remove
+     * @return true if the aircraft was queued; false otherwise
+     */
+    public synchronized boolean removeAircraft(Aircraft aircraft) {
+        Entry entry = this.entries.remove(aircraft);
+        if (entry == null) {
+            return false;
+        }
+        int index = entry.index;
+        Entry last = this.heap[--this.size];
+        this.heap[this.size] = null;
+        if (index < this.size) {
+            this.heap[index] = last;
+            last.index = index;
+            this.siftDown(index);
+            this.siftUp(last.index);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the given aircraft to its correct place in the queue after a
+     * change to its state that may affect its priority.
+     * If the aircraft is not queued, no action is taken.
+     * @param aircraft aircraft whose priority may have changed
+     */
+    public synchronized void updateAircraft(Aircraft aircraft) {
+        Entry entry = this.entries.get(aircraft);
+        if (entry == null) {
+            return;
+        }
+        entry.priority = this.getPriority(aircraft);
+        this.siftUp(entry.index);
+        this.siftDown(entry.index);
+    }
+
+    /**
+     * Returns true if the given aircraft is in the queue.
+     * @param aircraft aircraft to look for
+     * @return whether the aircraft is queued
+     */
+    public synchronized boolean containsAircraft(Aircraft aircraft) {
+        return this.entries.containsKey(aircraft);
+    }
+
+    /**
+     * Returns the number of aircraft in the queue.
+     * @return number of queued aircraft
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns true if there are no aircraft in the queue.
+     * @return whether the queue is empty
+     */
+    public synchronized boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns a list of all queued aircraft in the order they should be
+     * served.
+     *
+     * Adding or removing elements from the returned list should not affect
+     * the queue.
+     * @return queued aircraft, next to be served first
+     */
+    public synchronized List<Aircraft> getAircraftInOrder() {
+        Entry[] sorted = Arrays.copyOf(this.heap, this.size);
+        Arrays.sort(sorted, AircraftQueue::compare);
+        List<Aircraft> aircraft = new ArrayList<>(this.size);
+        for (Entry entry : sorted) {
+            aircraft.add(entry.aircraft);
+        }
+        return aircraft;
+    }
+
+    /**
+     * Returns the priority of the given aircraft in this queue. Aircraft
+     * with lower values are served first.
+     * @param aircraft aircraft to prioritise
+     * @return priority of the aircraft
+     */
+    protected abstract long getPriority(Aircraft aircraft);
+
+    /** Moves the entry at the given index up until its parent goes first. */
+    private void siftUp(int index) {
+        Entry entry = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(this.heap[parent], entry) <= 0) {
+                break;
+            }
+            this.heap[index] = this.heap[parent];
+            this.heap[index].index = index;
+            index = parent;
+        }
+        this.heap[index] = entry;
+        entry.index = index;
+    }
+
+    /** Moves the entry at the given index down until it goes first. */
+    private void siftDown(int index) {
+        Entry entry = this.heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= this.size) {
+                break;
+            }
+            if (child + 1 < this.size
+                    && compare(this.heap[child + 1], this.heap[child]) < 0) {
+                child++;
+            }
+            if (compare(entry, this.heap[child]) <= 0) {
+                break;
+            }
+            this.heap[index] = this.heap[child];
+            this.heap[index].index = index;
+            index = child;
+        }
+        this.heap[index] = entry;
+        entry.index = index;
+    }
+
+    /** Orders entries by priority, then by arrival. */
+    private static int compare(Entry a, Entry b) {
+        if (a.priority != b.priority) {
+            return Long.compare(a.priority, b.priority);
+        }
+        return Long.compare(a.arrival, b.arrival);
+    }
+
+    /**
+     * An aircraft in the queue, with the priority it was last placed by.
+     */
+    private static class Entry {
+
+        /** queued aircraft */
+        private final Aircraft aircraft;
+
+        /** order in which the aircraft joined the queue */
+        private final long arrival;
+
+        /** priority the aircraft was last placed by */
+        private long priority;
+
+        /** position of this entry in the heap */
+        private int index;
+
+        private Entry(Aircraft aircraft, long arrival, long priority) {
+            this.aircraft = aircraft;
+            this.arrival = arrival;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Append-only list of aircraft that may be added to from several threads at
+ * once without locking.
+ *
+ * Each add reserves the next position with a single atomic increment and
+ * then stores the aircraft there. Aircraft are stored in fixed-size chunks
+ * that are never copied, so only allocating a new chunk is synchronised.
+ */
+final class AircraftRegistry {
+
+    /** log2 of the number of aircraft in a chunk */
+    private static final int CHUNK_BITS = 12;
+
+    /** Number of aircraft in a chunk */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /** Handle used to publish and read aircraft in a chunk */
+    private static final VarHandle SLOTS =
+            MethodHandles.arrayElementVarHandle(Aircraft[].class);
+
+    /** Number of positions reserved so far */
+    private final AtomicInteger size;
+
+    /** Chunks of aircraft, each holding CHUNK_SIZE positions */
+    private volatile Aircraft[][] chunks;
+
+    /** Read-only view of the aircraft */
+    private final List<Aircraft> view;
+
+    AircraftRegistry() {
+        this.size = new AtomicInteger();
+        this.chunks = new Aircraft[0][];
+        this.view = new View();
+    }
+
+    /**
+     * Adds the given aircraft to the end of the list.
+     * @param aircraft aircraft to add
+     * @return position the aircraft was added at
+     */
+    int add(Aircraft aircraft) {
+        int index = this.size.getAndIncrement();
+        Aircraft[][] current = this.chunks;
+        if (index >>> CHUNK_BITS >= current.length) {
+            current = this.grow(index);
+        }
+        SLOTS.setRelease(current[index >>> CHUNK_BITS],
+                index & (CHUNK_SIZE - 1), aircraft);
+        return index;
+    }
+
+    /**
+     * Returns the number of aircraft added.
+     * @return number of aircraft
+     */
+    int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Returns the aircraft at the given position. If that position has been
+     * reserved by another thread that has not yet stored its aircraft, waits
+     * for it to do so.
+     * @param index position, from 0 to size() - 1
+     * @return aircraft at that position
+     */
+    Aircraft get(int index) {
+        while (true) {
+            Aircraft[][] current = this.chunks;
+            if (index >>> CHUNK_BITS < current.length) {
+                Aircraft aircraft = (Aircraft) SLOTS.getAcquire(
+                        current[index >>> CHUNK_BITS],
+                        index & (CHUNK_SIZE - 1));
+                if (aircraft != null) {
+                    return aircraft;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns a new list of all aircraft added, in order of position.
+     * @return list of aircraft
+     */
+    List<Aircraft> toList() {
+        int count = this.size();
+        List<Aircraft> aircraft = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            aircraft.add(this.get(i));
+        }
+        return aircraft;
+    }
+
+    /**
+     * Returns a read-only view of the aircraft, in order of position, which
+     * grows as aircraft are added.
+     * @return view of the aircraft
+     */
+    List<Aircraft> view() {
+        return this.view;
+    }
+
+    /**
+     * Passes each aircraft added so far to the given action, in order of
+     * position.
+     * @param action action to perform on each aircraft
+     */
+    void forEach(Consumer<? super Aircraft> action) {
+        int count = this.size();
+        for (int i = 0; i < count; i++) {
+            action.accept(this.get(i));
+        }
+    }
+
+    /** Allocates chunks up to the one holding the given position. */
+    private synchronized Aircraft[][] grow(int index) {
+        Aircraft[][] current = this.chunks;
+        int needed = (index >>> CHUNK_BITS) + 1;
+        if (needed > current.length) {
+            Aircraft[][] grown = Arrays.copyOf(current,
+                    Math.max(needed, 2 * current.length));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Aircraft[CHUNK_SIZE];
+            }
+            this.chunks = grown;
+            current = grown;
+        }
+        return current;
+    }
+
+    /**
+     * Read-only list backed by the registry.
+     */
+    private class View extends AbstractList<Aircraft> implements RandomAccess {
+
+        @Override
+        public Aircraft get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return AircraftRegistry.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return AircraftRegistry.this.size();
+        }
+    }
+}
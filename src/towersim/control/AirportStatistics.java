@@ -0,0 +1,158 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.aircraft.PassengerAircraft;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals over every aircraft managed by a control tower.
+ *
+ * The totals are updated as aircraft are added and as their fuel and cargo
+ * change, so reading them does not require a pass over the aircraft. Updates
+ * may arrive from several threads at once when the tower ticks in parallel
+ * or aircraft are added concurrently.
+ *
+ * Each distinct aircraft is counted once, however many times it was added to
+ * the tower. Fuel and weight totals are sums of many changes, so they may
+ * differ from a fresh sum over the aircraft in the last few decimal places.
+ */
+public class AirportStatistics {
+
+    /** All aircraft types, indexed by ordinal */
+    private static final AircraftType[] TYPES = AircraftType.values();
+
+    /** Total number of passengers onboard */
+    private final LongAdder passengers;
+
+    /** Total freight onboard, in kilograms */
+    private final LongAdder freight;
+
+    /** Total fuel onboard, in litres */
+    private final DoubleAdder fuel;
+
+    /** Total empty weight of all aircraft, in kilograms */
+    private final LongAdder emptyWeight;
+
+    /** Number of aircraft of each type, indexed by ordinal */
+    private final AtomicIntegerArray numAircraft;
+
+    /** Sum of the occupancy levels of aircraft of each type */
+    private final LongAdder[] occupancySums;
+
+    /**
+     * Creates a new AirportStatistics with no aircraft.
+     */
+    AirportStatistics() {
+        this.passengers = new LongAdder();
+        this.freight = new LongAdder();
+        this.fuel = new DoubleAdder();
+        this.emptyWeight = new LongAdder();
+        this.numAircraft = new AtomicIntegerArray(TYPES.length);
+        this.occupancySums = new LongAdder[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            this.occupancySums[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the total number of passengers onboard all aircraft.
+     * @return total passengers
+     */
+    public long getTotalPassengers() {
+        return this.passengers.sum();
+    }
+
+    /**
+     * Returns the total amount of freight onboard all aircraft.
+     * @return total freight, in kilograms
+     */
+    public long getTotalFreight() {
+        return this.freight.sum();
+    }
+
+    /**
+     * Returns the total amount of fuel onboard all aircraft.
+     * @return total fuel, in litres
+     */
+    public double getTotalFuel() {
+        return this.fuel.sum();
+    }
+
+    /**
+     * Returns the sum of getTotalWeight() over all aircraft.
+     * @return total weight, in kilograms
+     */
+    public double getTotalWeight() {
+        return this.emptyWeight.sum()
+                + this.getTotalFuel() * Aircraft.LITRE_OF_FUEL_WEIGHT
+                + this.getTotalPassengers()
+                * PassengerAircraft.AVG_PASSENGER_WEIGHT
+                + this.getTotalFreight();
+    }
+
+    /**
+     * Returns the number of aircraft of the given type.
+     * @param type type of aircraft
+     * @return number of aircraft of that type
+     */
+    public int getNumAircraft(AircraftType type) {
+        return this.numAircraft.get(type.ordinal());
+    }
+
+    /**
+     * Returns the average of calculateOccupancyLevel() over all aircraft of
+     * the given type, or 0 if there are no aircraft of that type.
+     * @param type type of aircraft
+     * @return average occupancy level, 0 to 100
+     */
+    public double getAverageOccupancy(AircraftType type) {
+        int count = this.numAircraft.get(type.ordinal());
+        if (count == 0) {
+            return 0;
+        }
+        return (double) this.occupancySums[type.ordinal()].sum() / count;
+    }
+
+    /**
+     * Adds the current state of the given aircraft to the totals.
+     * @param aircraft aircraft to add
+     * @param occupancy occupancy level of the aircraft
+     */
+    void aircraftAdded(Aircraft aircraft, int occupancy) {
+        int type = aircraft.getCharacteristics().type.ordinal();
+        this.numAircraft.incrementAndGet(type);
+        this.emptyWeight.add(aircraft.getCharacteristics().emptyWeight);
+        this.loadChanged(aircraft, aircraft.getFuelAmount(),
+                aircraft.getNumPassengers(), aircraft.getFreightAmount(),
+                occupancy);
+    }
+
+    /**
+     * Adds the given changes in an aircraft's load to the totals.
+     * @param aircraft aircraft whose load changed
+     * @param fuelDelta change in fuel onboard, in litres
+     * @param passengerDelta change in number of passengers onboard
+     * @param freightDelta change in freight onboard, in kilograms
+     * @param occupancyDelta change in occupancy level
+     */
+    void loadChanged(Aircraft aircraft, double fuelDelta, int passengerDelta,
+                     int freightDelta, int occupancyDelta) {
+        if (fuelDelta != 0) {
+            this.fuel.add(fuelDelta);
+        }
+        if (passengerDelta != 0) {
+            this.passengers.add(passengerDelta);
+        }
+        if (freightDelta != 0) {
+            this.freight.add(freightDelta);
+        }
+        if (occupancyDelta != 0) {
+            this.occupancySums[aircraft.getCharacteristics().type.ordinal()]
+                    .add(occupancyDelta);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package towersim.control;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A growable set of bits that may be set, cleared and searched from several
+ * threads at once without locking.
+ *
+ * Bits are stored in fixed-size chunks that are never copied, so growing the
+ * set cannot lose a concurrent update. Only growing is synchronised.
+ */
+final class AtomicBitSet {
+
+    /** log2 of the number of bits in a chunk */
+    private static final int CHUNK_BITS = 12;
+
+    /** Number of longs in a chunk */
+    private static final int CHUNK_WORDS = 1 << (CHUNK_BITS - 6);
+
+    /** Handle used to update words of a chunk atomically */
+    private static final VarHandle WORDS =
+            MethodHandles.arrayElementVarHandle(long[].class);
+
+    /** Chunks of bits, each holding CHUNK_WORDS words */
+    private volatile long[][] chunks;
+
+    AtomicBitSet() {
+        this.chunks = new long[0][];
+    }
+
+    /**
+     * Makes sure bits 0 to numBits - 1 can be used.
+     * @param numBits number of bits needed
+     */
+    synchronized void ensureCapacity(int numBits) {
+        int numChunks = (numBits + (1 << CHUNK_BITS) - 1) >>> CHUNK_BITS;
+        long[][] current = this.chunks;
+        if (numChunks > current.length) {
+            long[][] grown = Arrays.copyOf(current,
+                    Math.max(numChunks, 2 * current.length));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new long[CHUNK_WORDS];
+            }
+            this.chunks = grown;
+        }
+    }
+
+    /**
+     * Sets or clears the bit at the given index, which must be within the
+     * capacity given to ensureCapacity().
+     * @param index index of the bit
+     * @param value true to set the bit; false to clear it
+     */
+    void set(int index, boolean value) {
+        long[] chunk = this.chunks[index >>> CHUNK_BITS];
+        int word = (index >>> 6) & (CHUNK_WORDS - 1);
+        long mask = 1L << index;
+        if (value) {
+            WORDS.getAndBitwiseOr(chunk, word, mask);
+        } else {
+            WORDS.getAndBitwiseAnd(chunk, word, ~mask);
+        }
+    }
+
+    /**
+     * Returns the index of the first set bit at or after the given index, or
+     * -1 if there is none.
+     * @param from index to start searching from
+     * @return index of the next set bit, or -1
+     */
+    int nextSetBit(int from) {
+        long[][] current = this.chunks;
+        int chunkIndex = from >>> CHUNK_BITS;
+        int wordIndex = (from >>> 6) & (CHUNK_WORDS - 1);
+        long mask = -1L << from;
+        for (; chunkIndex < current.length; chunkIndex++) {
+            long[] chunk = current[chunkIndex];
+            for (; wordIndex < CHUNK_WORDS; wordIndex++) {
+                long word = (long) WORDS.getAcquire(chunk, wordIndex) & mask;
+                if (word != 0) {
+                    return (chunkIndex << CHUNK_BITS) + (wordIndex << 6)
+                            + Long.numberOfTrailingZeros(word);
+                }
+                mask = -1L;
+            }
+            wordIndex = 0;
+        }
+        return -1;
+    }
+}
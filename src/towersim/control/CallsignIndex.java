@@ -0,0 +1,87 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index of aircraft by callsign, supporting exact lookups and prefix
+ * searches.
+ *
+ * Exact lookups go through a hash map and take constant time. Prefix
+ * searches use a sorted map, so finding the k aircraft whose callsigns start
+ * with a prefix takes O(log n + k) time. Both maps are concurrent, so
+ * aircraft may be added from several threads at once.
+ *
+ * Callsigns are expected to be unique; if several aircraft share a callsign,
+ * only the first one added is indexed.
+ */
+final class CallsignIndex {
+
+    /** Aircraft with each callsign */
+    private final Map<String, Aircraft> byCallsign;
+
+    /** Aircraft with each callsign, in callsign order */
+    private final ConcurrentSkipListMap<String, Aircraft> sorted;
+
+    CallsignIndex() {
+        this.byCallsign = new ConcurrentHashMap<>();
+        this.sorted = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Adds the given aircraft to the index, unless an aircraft with the same
+     * callsign has already been added.
+     * @param aircraft aircraft to add
+     */
+    void add(Aircraft aircraft) {
+        String callsign = aircraft.getCallsign();
+        if (this.byCallsign.putIfAbsent(callsign, aircraft) == null) {
+            this.sorted.put(callsign, aircraft);
+        }
+    }
+
+    /**
+     * Returns the aircraft with the given callsign, or null if there is none.
+     * @param callsign callsign to look up
+     * @return aircraft with that callsign, or null
+     */
+    Aircraft get(String callsign) {
+        return this.byCallsign.get(callsign);
+    }
+
+    /**
+     * Returns a new list of every aircraft whose callsign starts with the
+     * given prefix, in callsign order.
+     * @param prefix start of the callsigns to find
+     * @return aircraft with matching callsigns
+     */
+    List<Aircraft> withPrefix(String prefix) {
+        Map<String, Aircraft> matches;
+        String end = next(prefix);
+        if (end == null) {
+            matches = this.sorted.tailMap(prefix);
+        } else {
+            matches = this.sorted.subMap(prefix, end);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Returns the smallest string greater than every string that starts with
+     * the given prefix, or null if there is no such string.
+     */
+    private static String next(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char last = prefix.charAt(i);
+            if (last != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (last + 1);
+            }
+        }
+        return null;
+    }
+}
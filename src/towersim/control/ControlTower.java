@@ -2,46 +2,216 @@ package towersim.control;
 
 import towersim.aircraft.Aircraft;
 import towersim.aircraft.AircraftType;
+import towersim.aircraft.FleetStore;
+import towersim.aircraft.LoadListener;
 import towersim.ground.AirplaneTerminal;
 import towersim.ground.Gate;
+import towersim.ground.GateListener;
 import towersim.ground.HelicopterTerminal;
 import towersim.ground.Terminal;
+import towersim.jfr.GateAllocationEvent;
+import towersim.jfr.TickEvent;
+import towersim.jfr.TowerEvents;
+import towersim.journal.JournalWriter;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskListener;
 import towersim.tasks.TaskType;
+import towersim.util.EmergencyListener;
+import towersim.util.EmergencyState;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 import towersim.util.Tickable;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Represents a the control tower of an airport. The control tower is
  * responsible for managing the operations of the airport, including arrivals
  * and departures in/out of the airport, as well as aircraft that need to be
  * loaded with cargo at gates in terminals.
+ *
+ * Aircraft may be added, parked and moved on from several threads at once.
+ * Parking takes no lock shared between terminals: gates are claimed with a
+ * compare-and-set, and the tower's indexes are concurrent structures. Ticks
+ * must not run at the same time as aircraft are added, and terminals and
+ * settings should be configured before aircraft arrive.
  */
 public class ControlTower implements Tickable {
 
+    /**
+     * Largest number of aircraft ticked by a single task when ticking in
+     * parallel; larger ranges are split in half.
+     */
+    public static final int TICK_CHUNK_SIZE = 4096;
+
     /** List of all terminals managed by control tower */
     private List<Terminal> terminals;
 
+    /** Read-only view of terminals */
+    private List<Terminal> terminalsView;
+
     /** List of all aircrafts managed by control tower */
-    private List<Aircraft> aircrafts;
+    private AircraftRegistry aircrafts;
+
+    /** Terminals grouped by the type of aircraft they accommodate */
+    private EnumMap<AircraftType, List<Terminal>> terminalsByType;
+
+    /**
+     * For each aircraft type, set bit i means the i-th terminal of that type
+     * has at least one unoccupied gate
+     */
+    private EnumMap<AircraftType, AtomicBitSet> terminalsWithSpace;
+
+    /** Gate each parked aircraft occupies, across all managed terminals */
+    private Map<Aircraft, Gate> gatesOfAircraft;
+
+    /** Pool used to tick aircraft in parallel, or null to tick sequentially */
+    private ForkJoinPool tickPool;
+
+    /** Whether tickPool was created by this control tower */
+    private boolean ownsTickPool;
+
+    /** Watcher of each managed aircraft */
+    private Map<Aircraft, AircraftWatcher> aircraftWatchers;
+
+    /** Watcher of each managed terminal */
+    private Map<Terminal, TerminalWatcher> terminalWatchers;
+
+    /** Watcher of the terminal each gate belongs to */
+    private Map<Gate, TerminalWatcher> terminalsOfGates;
+
+    /** Executor terminal actors run requests on */
+    private Executor terminalExecutor;
+
+    /** Whether terminalExecutor was created by this control tower */
+    private boolean ownsTerminalExecutor;
+
+    /** Whether terminal actors run requests on other threads */
+    private volatile boolean terminalActorsRunning;
+
+    /** Watchers of managed aircraft grouped by their current task type */
+    private EnumMap<TaskType, AircraftGroup> aircraftByTask;
+
+    /** Journal state changes are recorded in, or null if none */
+    private volatile JournalWriter journal;
+
+    /** Running totals over all managed aircraft */
+    private AirportStatistics statistics;
+
+    /** Managed aircraft indexed by callsign */
+    private CallsignIndex callsigns;
+
+    /** Managed aircraft and terminals currently in emergency */
+    private EmergencyRegistry emergencies;
+
+    /** Latencies and counts of this control tower's operations */
+    private TowerMetrics metrics;
+
+    /** Managed aircraft whose current task is LAND, in landing order */
+    private LandingQueue landingQueue;
+
+    /** Managed aircraft whose current task is TAKEOFF, in departure order */
+    private DepartureQueue departureQueue;
+
+    /** Number of aircraft that take off on each tick */
+    private int runwayRate;
+
+    /** Actions that move aircraft on from timed tasks */
+    private TimingWheel taskTimers;
+
+    /** Fleet stores whose aircraft are ticked a store at a time */
+    private List<FleetRange> fleets;
+
+    /** Whether aircraft move on from LOAD once loading is finished */
+    private boolean loadScheduling;
 
     /**
      * Creates a new ControlTower.
      */
     public ControlTower() {
-        terminals = new ArrayList<>();
-        aircrafts = new ArrayList<>();
+        terminals = new CopyOnWriteArrayList<>();
+        terminalsView = Collections.unmodifiableList(terminals);
+        aircrafts = new AircraftRegistry();
+        terminalsByType = new EnumMap<>(AircraftType.class);
+        terminalsWithSpace = new EnumMap<>(AircraftType.class);
+        for (AircraftType type : AircraftType.values()) {
+            terminalsByType.put(type, new CopyOnWriteArrayList<>());
+            terminalsWithSpace.put(type, new AtomicBitSet());
+        }
+        gatesOfAircraft = new ConcurrentHashMap<>();
+        aircraftWatchers = new ConcurrentHashMap<>();
+        terminalWatchers = new ConcurrentHashMap<>();
+        terminalsOfGates = new ConcurrentHashMap<>();
+        terminalExecutor = Runnable::run;
+        ownsTerminalExecutor = false;
+        terminalActorsRunning = false;
+        aircraftByTask = new EnumMap<>(TaskType.class);
+        for (TaskType type : TaskType.values()) {
+            aircraftByTask.put(type, new AircraftGroup());
+        }
+        statistics = new AirportStatistics();
+        callsigns = new CallsignIndex();
+        emergencies = new EmergencyRegistry();
+        metrics = new TowerMetrics();
+        landingQueue = new LandingQueue();
+        departureQueue = new DepartureQueue();
+        runwayRate = 0;
+        taskTimers = new TimingWheel();
+        loadScheduling = false;
+        fleets = new CopyOnWriteArrayList<>();
     }
 
     /**
      * Adds the given terminal to the jurisdiction of this control tower.
      * @param terminal terminal to add
      */
-    public void addTerminal(Terminal terminal) {
+    public synchronized void addTerminal(Terminal terminal) {
+        int id = terminals.size();
         terminals.add(terminal);
+
+        TerminalWatcher watcher;
+        if (terminal instanceof AirplaneTerminal) {
+            watcher = new TerminalWatcher(terminal, AircraftType.AIRPLANE,
+                    id);
+        } else if (terminal instanceof HelicopterTerminal) {
+            watcher = new TerminalWatcher(terminal, AircraftType.HELICOPTER,
+                    id);
+        } else {
+            watcher = new TerminalWatcher(terminal, null, id);
+        }
+        terminalWatchers.put(terminal, watcher);
+        if (journal != null) {
+            journal.terminalAdded(id, watcher.type,
+                    terminal.getTerminalNumber());
+        }
+        terminal.forEachGate(watcher::gateAdded);
+        watcher.updateSpace();
+        terminal.addGateListener(watcher);
+        terminal.addEmergencyListener(watcher);
+        if (terminal.hasEmergency()) {
+            watcher.emergencyChanged(terminal);
+        }
     }
 
     /**
@@ -57,6 +227,46 @@ public class ControlTower implements Tickable {
         return new ArrayList<Terminal>(this.terminals);
     }
 
+    /**
+     * Returns a read-only view of the terminals managed by this control
+     * tower, in the same order as getTerminals().
+     *
+     * Unlike getTerminals(), no copy is made: the view always reflects the
+     * terminals currently managed, and trying to change it throws an
+     * UnsupportedOperationException.
+     * @return read-only view of all terminals
+     */
+    public List<Terminal> getTerminalsView() {
+        return this.terminalsView;
+    }
+
+    /**
+     * Returns the number of terminals managed by this control tower.
+     * @return number of terminals
+     */
+    public int getNumTerminals() {
+        return this.terminals.size();
+    }
+
+    /**
+     * Returns the terminal at the given position in getTerminals().
+     * @param index position of the terminal, from 0 to getNumTerminals() - 1
+     * @return terminal at that position
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Terminal getTerminal(int index) {
+        return this.terminals.get(index);
+    }
+
+    /**
+     * Passes each managed terminal to the given action, in the same order
+     * as getTerminals(), without copying the list.
+     * @param action action to perform on each terminal
+     */
+    public void forEachTerminal(Consumer<? super Terminal> action) {
+        this.terminals.forEach(action);
+    }
+
     /**
      * Adds the given aircraft to the jurisdiction of this control tower.
      * If the aircraft's current task type is WAIT or LOAD, it should be
@@ -64,27 +274,213 @@ public class ControlTower implements Tickable {
      * method. If there is no suitable gate for the aircraft, the
      * NoSuitableGateException thrown by findUnoccupiedGate() should be
      * propagated out of this method.
+     *
+     * While terminal actors are running, this waits for the park request
+     * to run, unless it is called from a terminal actor's request, in which
+     * case the aircraft is parked directly. Callers on other threads the
+     * actors' executor may need should use addAircraftAsync(Aircraft).
      * @param aircraft aircraft to add
      * @throws NoSuitableGateException if there is no suitable gate for an
      * aircraft with a current task type of WAIT or LOAD
      */
     public void addAircraft(Aircraft aircraft)
             throws NoSuitableGateException {
-        //Current Task of aircraft.
-        TaskType currentTask =
-                aircraft.getTaskList().getCurrentTask().getType();
+        long start = System.nanoTime();
+        try {
+            this.addAndPark(aircraft);
+        } finally {
+            this.metrics.aircraftAdded(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds the given aircraft to the jurisdiction of this control tower, as
+     * described by addAircraft(Aircraft), without waiting for it to park.
+     *
+     * While terminal actors are running, the returned future completes once
+     * the park request has run; otherwise it is already complete. It fails
+     * with a NoSuitableGateException if there is no suitable gate.
+     * @param aircraft aircraft to add
+     * @return future completed once the aircraft is parked, if it needs a
+     * gate
+     */
+    public CompletableFuture<Void> addAircraftAsync(Aircraft aircraft) {
+        boolean needsGate = needsGate(aircraft);
+        this.registerAircraft(aircraft);
+        if (!needsGate) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (this.terminalActorsRunning) {
+            return this.parkAircraftAsync(aircraft).thenApply(gate -> null);
+        }
+        try {
+            this.parkAtUnoccupiedGate(aircraft);
+        } catch (NoSuitableGateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Adds every aircraft held in the given fleet store to the jurisdiction
+     * of this control tower, as if each were passed to addAircraft(Aircraft)
+     * in slot order.
+     *
+     * On each tick, these aircraft are then advanced together with
+     * FleetStore.tick(int, int, long), in one pass over the store's arrays,
+     * instead of one aircraft at a time. Aircraft added to the store later
+     * are not included, but may still be added with addAircraft(Aircraft).
+     *
+     * If no suitable gate can be found for one of the aircraft, the aircraft
+     * before it stay added and the NoSuitableGateException is propagated.
+     * @param fleet fleet store whose aircraft to add
+     * @throws NoSuitableGateException if there is no suitable gate for an
+     * aircraft with a current task type of WAIT or LOAD
+     */
+    public void addFleet(FleetStore fleet) throws NoSuitableGateException {
+        int count = fleet.size();
+        int added = 0;
+        try {
+            while (added < count) {
+                Aircraft aircraft = fleet.get(added);
+                this.addAircraft(aircraft);
+                AircraftWatcher watcher = this.aircraftWatchers.get(aircraft);
+                synchronized (watcher) {
+                    watcher.fleetTicks++;
+                }
+                added++;
+            }
+        } finally {
+            if (added > 0) {
+                this.fleets.add(new FleetRange(fleet, added));
+            }
+        }
+    }
+
+    /**
+     * Adds the given aircraft and parks it if needed, as described by
+     * addAircraft(Aircraft).
+     */
+    private void addAndPark(Aircraft aircraft)
+            throws NoSuitableGateException {
+        //Whether the current task of aircraft needs a gate.
+        boolean needsGate = needsGate(aircraft);
 
         //add given aircraft to control tower jurisdiction.
-        this.aircrafts.add(aircraft);
+        this.registerAircraft(aircraft);
 
         //park aircraft at a suitable gate
-        if (currentTask.equals(TaskType.WAIT) || currentTask.equals(TaskType.LOAD)) {
+        if (needsGate) {
+            //Waiting from inside an actor's request could deadlock its
+            //executor, so park directly there; gates are claimed atomically
+            if (this.terminalActorsRunning
+                    && !TerminalActor.isRunningRequest()) {
+                try {
+                    this.parkAircraftAsync(aircraft).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof NoSuitableGateException
+                            || e.getCause() instanceof NoSpaceException) {
+                        throw new NoSuitableGateException();
+                    }
+                    throw e;
+                }
+                return;
+            }
+            this.parkAtUnoccupiedGate(aircraft);
+        }
+    }
+
+    /**
+     * Returns true if the given aircraft's current task type is WAIT or
+     * LOAD, so it should be parked at a gate when added.
+     */
+    private static boolean needsGate(Aircraft aircraft) {
+        TaskType currentTask =
+                aircraft.getTaskList().getCurrentTask().getType();
+        return currentTask.equals(TaskType.WAIT)
+                || currentTask.equals(TaskType.LOAD);
+    }
+
+    /**
+     * Parks the given aircraft at the gate found by findUnoccupiedGate(),
+     * searching again if another thread claims that gate first.
+     */
+    private void parkAtUnoccupiedGate(Aircraft aircraft)
+            throws NoSuitableGateException {
+        while (true) {
+            Gate gate = this.findUnoccupiedGate(aircraft);
+            long start = System.nanoTime();
             try {
-                this.findUnoccupiedGate(aircraft).parkAircraft(aircraft);
-            } catch (NoSpaceException | NoSuitableGateException e) {
-                throw new NoSuitableGateException();
+                gate.parkAircraft(aircraft);
+                return;
+            } catch (NoSpaceException e) {
+                //Another thread claimed the gate first; find another
+                this.metrics.gateConflict();
+            } finally {
+                this.metrics.aircraftParked(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Adds the given aircraft to the jurisdiction of this control tower
+     * without parking it, whatever its current task type.
+     *
+     * This is used to rebuild a control tower whose gate occupancy is
+     * restored separately, such as from a snapshot or a journal.
+     * @param aircraft aircraft to add
+     */
+    public void registerAircraft(Aircraft aircraft) {
+        JournalWriter journal = this.journal;
+        if (journal == null) {
+            this.watchAircraft(aircraft, this.aircrafts.add(aircraft));
+            return;
+        }
+        //Hold the journal so records are written in the order of their ids
+        synchronized (journal) {
+            int id = this.aircrafts.add(aircraft);
+            AircraftWatcher watcher = this.watchAircraft(aircraft, id);
+            journal.aircraftAdded(id, aircraft);
+            if (aircraft.hasEmergency()) {
+                journal.emergencyChanged(JournalWriter.SUBJECT_AIRCRAFT,
+                        watcher.id, true);
+            }
+        }
+    }
+
+    /**
+     * Starts following the given aircraft, added at the given position, or
+     * counts another registration if it is already followed.
+     */
+    private AircraftWatcher watchAircraft(Aircraft aircraft, int id) {
+        AircraftWatcher created = new AircraftWatcher(aircraft, id);
+        AircraftWatcher watcher =
+                this.aircraftWatchers.putIfAbsent(aircraft, created);
+        if (watcher == null) {
+            watcher = created;
+            aircraft.getTaskList().addTaskListener(watcher);
+            aircraft.addEmergencyListener(watcher);
+            aircraft.addLoadListener(watcher);
+            this.statistics.aircraftAdded(aircraft, watcher.occupancy);
+            this.callsigns.add(aircraft);
+            if (aircraft.hasEmergency()) {
+                this.emergencies.aircraftChanged(id, aircraft);
+            }
+            TaskType type = aircraft.getTaskList().getCurrentTask().getType();
+            this.aircraftByTask.get(type).add(watcher);
+            if (type == TaskType.LAND) {
+                this.landingQueue.addAircraft(aircraft);
+            } else if (type == TaskType.TAKEOFF) {
+                this.departureQueue.addAircraft(aircraft);
+            } else if (type == TaskType.LOAD && this.loadScheduling) {
+                this.scheduleLoad(watcher);
+            }
+        } else {
+            synchronized (watcher) {
+                watcher.registrations++;
             }
         }
+        return watcher;
     }
 
     /**
@@ -97,7 +493,249 @@ public class ControlTower implements Tickable {
      * @return all aircraft
      */
     public List<Aircraft> getAircraft() {
-        return new ArrayList<Aircraft>(this.aircrafts);
+        return this.aircrafts.toList();
+    }
+
+    /**
+     * Returns a read-only view of the aircraft managed by this control
+     * tower, in the same order as getAircraft().
+     *
+     * Unlike getAircraft(), no copy is made: the view grows as aircraft are
+     * added, and trying to change it throws an
+     * UnsupportedOperationException.
+     * @return read-only view of all aircraft
+     */
+    public List<Aircraft> getAircraftView() {
+        return this.aircrafts.view();
+    }
+
+    /**
+     * Returns the number of aircraft managed by this control tower, counting
+     * an aircraft once for each time it was added.
+     * @return number of aircraft
+     */
+    public int getNumAircraft() {
+        return this.aircrafts.size();
+    }
+
+    /**
+     * Returns the aircraft at the given position in getAircraft().
+     * @param index position of the aircraft, from 0 to getNumAircraft() - 1
+     * @return aircraft at that position
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Aircraft getAircraft(int index) {
+        if (index < 0 || index >= this.aircrafts.size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this.aircrafts.get(index);
+    }
+
+    /**
+     * Passes each managed aircraft to the given action, in the same order
+     * as getAircraft(), without copying the list.
+     * @param action action to perform on each aircraft
+     */
+    public void forEachAircraft(Consumer<? super Aircraft> action) {
+        this.aircrafts.forEach(action);
+    }
+
+    /**
+     * Returns the managed aircraft with the given callsign, without scanning
+     * the aircraft.
+     *
+     * If several managed aircraft share a callsign, the one added first is
+     * returned.
+     * @param callsign callsign of the aircraft to find
+     * @return aircraft with the given callsign; or null if none is managed
+     */
+    public Aircraft findAircraft(String callsign) {
+        if (callsign == null) {
+            return null;
+        }
+        return this.callsigns.get(callsign);
+    }
+
+    /**
+     * Returns every managed aircraft whose callsign starts with the given
+     * prefix, such as all aircraft of one airline, in callsign order.
+     *
+     * Adding or removing elements from the returned list does not affect
+     * this control tower.
+     * @param prefix start of the callsigns to find; "" matches every
+     * aircraft
+     * @return aircraft whose callsigns start with prefix
+     */
+    public List<Aircraft> findAircraftByPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException();
+        }
+        return this.callsigns.withPrefix(prefix);
+    }
+
+    /**
+     * Returns true if any managed aircraft or terminal is in a state of
+     * emergency.
+     *
+     * Emergencies are tracked as they are declared and cleared, so this does
+     * not check each aircraft and terminal.
+     * @return whether an emergency is active
+     */
+    public boolean hasActiveEmergency() {
+        return this.emergencies.hasEmergency();
+    }
+
+    /**
+     * Returns the number of managed aircraft and terminals currently in a
+     * state of emergency.
+     * @return number of active emergencies
+     */
+    public int getNumEmergencies() {
+        return this.emergencies.size();
+    }
+
+    /**
+     * Returns a list of all managed aircraft currently in a state of
+     * emergency, in the order they were added.
+     *
+     * Adding or removing elements from the returned list should not affect
+     * this control tower.
+     * @return aircraft in emergency
+     */
+    public List<Aircraft> getAircraftInEmergency() {
+        return this.emergencies.getAircraft();
+    }
+
+    /**
+     * Returns a list of all managed terminals currently in a state of
+     * emergency, in the order they were added.
+     *
+     * Adding or removing elements from the returned list should not affect
+     * this control tower.
+     * @return terminals in emergency
+     */
+    public List<Terminal> getTerminalsInEmergency() {
+        return this.emergencies.getTerminals();
+    }
+
+    /**
+     * Returns the latency histograms and counters kept for this control
+     * tower's busiest operations: ticks, adding aircraft, gate searches,
+     * parking, and failures to find a gate.
+     *
+     * Recording is lock-free and allocation-free, so metrics are always
+     * kept. Call TowerMetrics.snapshot() to read them.
+     * @return metrics of this control tower
+     */
+    public TowerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns running totals of the fuel, passengers, freight, weight and
+     * occupancy of all aircraft managed by this control tower.
+     *
+     * The returned object is kept up to date as the aircraft change, so it
+     * can be read on every tick without scanning the aircraft.
+     * @return airport-wide statistics
+     */
+    public AirportStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Returns the queue of managed aircraft waiting to land.
+     *
+     * An aircraft joins the queue when it is added to this control tower
+     * with a current task of LAND, or when its task list moves on to a LAND
+     * task. It leaves the queue when its task list moves on from the LAND
+     * task, or when it is removed from the queue directly. Aircraft are
+     * re-ordered automatically when their emergency state changes.
+     * @return landing queue
+     */
+    public LandingQueue getLandingQueue() {
+        return this.landingQueue;
+    }
+
+    /**
+     * Returns the queue of managed aircraft waiting to take off.
+     *
+     * An aircraft joins the queue when it is added to this control tower
+     * with a current task of TAKEOFF, or when its task list moves on to a
+     * TAKEOFF task. In the latter case, the gate it was parked at is vacated
+     * straight away so that other aircraft can use it. An aircraft leaves
+     * the queue when it takes off (see setRunwayRate(int)), when its task
+     * list moves on from the TAKEOFF task, or when it is removed from the
+     * queue directly.
+     * @return departure queue
+     */
+    public DepartureQueue getDepartureQueue() {
+        return this.departureQueue;
+    }
+
+    /**
+     * Sets the number of aircraft that take off on each tick.
+     *
+     * At the end of each tick, up to this many aircraft are removed from the
+     * front of the departure queue and their task lists are moved on to the
+     * task after TAKEOFF. A rate of 0, the default, means aircraft never
+     * take off on their own.
+     * @param runwayRate number of departures per tick
+     * @throws IllegalArgumentException if runwayRate < 0
+     */
+    public void setRunwayRate(int runwayRate) {
+        if (runwayRate < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.runwayRate = runwayRate;
+    }
+
+    /**
+     * Sets whether aircraft move on from LOAD tasks by themselves.
+     *
+     * When enabled, an aircraft that is added with, or moves on to, a LOAD
+     * task has its task list moved on automatically at the end of the tick
+     * on which it has been loading for getLoadingTime() ticks. Aircraft
+     * already loading when this is enabled are given a full loading time
+     * from then. Disabled by default.
+     *
+     * The transitions are kept in a timing wheel, so ticks cost nothing
+     * extra for aircraft that are not finishing a task.
+     * @param enabled whether LOAD tasks end automatically
+     */
+    public void setLoadScheduling(boolean enabled) {
+        if (enabled == this.loadScheduling) {
+            return;
+        }
+        this.loadScheduling = enabled;
+        if (!enabled) {
+            this.taskTimers.clear();
+            return;
+        }
+        for (int i = 0; i < this.aircrafts.size(); i++) {
+            Aircraft aircraft = this.aircrafts.get(i);
+            AircraftWatcher watcher = this.aircraftWatchers.get(aircraft);
+            //Only schedule aircraft added more than once the first time
+            if (watcher.id == i
+                    && aircraft.getTaskList().getCurrentTask().getType()
+                    == TaskType.LOAD) {
+                this.scheduleLoad(watcher);
+            }
+        }
+    }
+
+    /**
+     * Schedules the watched aircraft's task list to move on once its current
+     * LOAD task has run for the aircraft's loading time, unless the task
+     * list has moved on by then.
+     */
+    private void scheduleLoad(AircraftWatcher watcher) {
+        int taskMoves = watcher.taskMoves;
+        this.taskTimers.schedule(watcher.aircraft.getLoadingTime(), () -> {
+            if (watcher.taskMoves == taskMoves) {
+                watcher.aircraft.getTaskList().moveToNextTask();
+            }
+        });
     }
 
     /**
@@ -116,25 +754,76 @@ public class ControlTower implements Tickable {
      *
      * If no unoccupied gates could be found across all compatible terminals,
      * a NoSuitableGateException should be thrown.
+     *
+     * When aircraft are parked from several threads, the returned gate may be
+     * claimed by another thread before the caller parks at it, in which case
+     * Gate.parkAircraft() throws a NoSpaceException and the caller should
+     * search again.
      * @param aircraft aircraft for which to find gate
      * @return gate for given aircraft if one exists
      * @throws NoSuitableGateException if no suitable gate could be found
      */
     public Gate findUnoccupiedGate(Aircraft aircraft)
             throws NoSuitableGateException {
-        //Check Airplane Terminals
-        if (aircraft.getCharacteristics().type.equals(AircraftType.AIRPLANE)) {
-            for (Terminal terminalAirPlane : this.getTerminals()) {
-                if (terminalAirPlane instanceof AirplaneTerminal) {
-                    return terminalAirPlane.findUnoccupiedGate();
-                }
+        long start = System.nanoTime();
+        //Only create an event while it is being recorded
+        GateAllocationEvent event = null;
+        if (TowerEvents.isGateAllocationEnabled()) {
+            event = new GateAllocationEvent();
+            event.begin();
+        }
+        Gate gate = null;
+        try {
+            gate = this.searchGate(aircraft, event);
+            return gate;
+        } catch (NoSuitableGateException e) {
+            this.metrics.gateAllocationFailed();
+            throw e;
+        } finally {
+            this.metrics.gateSearched(System.nanoTime() - start);
+            if (event != null && event.shouldCommit()) {
+                this.commitGateAllocation(event, aircraft, gate);
             }
-            //Check Helicopter terminals
-        } else if (aircraft.getCharacteristics().type.equals(AircraftType.HELICOPTER)) {
-            for (Terminal terminalHeli : this.getTerminals()) {
-                if (terminalHeli instanceof HelicopterTerminal) {
-                    return terminalHeli.findUnoccupiedGate();
-                }
+        }
+    }
+
+    /** Fills in and commits a gate allocation event. */
+    private void commitGateAllocation(GateAllocationEvent event,
+                                      Aircraft aircraft, Gate gate) {
+        event.callsign = aircraft.getCallsign();
+        event.success = gate != null;
+        event.terminal = -1;
+        event.gate = -1;
+        if (gate != null) {
+            TerminalWatcher watcher = this.terminalsOfGates.get(gate);
+            if (watcher != null) {
+                event.terminal = watcher.terminal.getTerminalNumber();
+            }
+            event.gate = gate.getGateNumber();
+        }
+        event.commit();
+    }
+
+    /**
+     * Finds an unoccupied gate for the given aircraft, as described by
+     * findUnoccupiedGate(Aircraft), counting the terminals tried in event
+     * unless it is null.
+     */
+    private Gate searchGate(Aircraft aircraft, GateAllocationEvent event)
+            throws NoSuitableGateException {
+        AircraftType type = aircraft.getCharacteristics().type;
+        AtomicBitSet withSpace = terminalsWithSpace.get(type);
+        List<Terminal> sameType = terminalsByType.get(type);
+        //First compatible terminal, in order added, with a free gate
+        for (int index = withSpace.nextSetBit(0); index >= 0;
+                index = withSpace.nextSetBit(index + 1)) {
+            if (event != null) {
+                event.scanLength++;
+            }
+            try {
+                return sameType.get(index).findUnoccupiedGate();
+            } catch (NoSuitableGateException e) {
+                //Filled by another thread since its bit was read
             }
         }
         throw new NoSuitableGateException();
@@ -147,15 +836,62 @@ public class ControlTower implements Tickable {
      * @return gate occupied by the given aircraft; or null if none exists
      */
     public Gate findGateOfAircraft(Aircraft aircraft) {
-        for (Terminal terminal : this.getTerminals()) {
-            for (Gate gate : terminal.getGates()) {
-                Aircraft aircraftMatch = gate.getAircraftAtGate();
-                if (aircraftMatch.equals(aircraft)) {
-                    return gate;
-                }
-            }
+        if (aircraft == null) {
+            return null;
+        }
+        return gatesOfAircraft.get(aircraft);
+    }
+
+    /**
+     * Records every later change to this control tower's state in the given
+     * journal, such that JournalReader.replay() can rebuild the tower.
+     *
+     * The journal must be attached before any terminals or aircraft are
+     * added. Parking and emergencies of aircraft are only recorded once the
+     * aircraft has been added to this control tower.
+     * @param journal journal to write to, or null to stop journalling
+     * @throws IllegalStateException if terminals or aircraft have already
+     * been added
+     */
+    public synchronized void setJournal(JournalWriter journal) {
+        if (journal != null
+                && (!terminals.isEmpty() || aircrafts.size() != 0)) {
+            throw new IllegalStateException(
+                    "Journal must be attached to an empty control tower");
         }
-        return null;
+        this.journal = journal;
+    }
+
+    /**
+     * Writes a compact binary snapshot of this control tower's terminals,
+     * gates and aircraft to the given channel.
+     *
+     * Aircraft models and tasks are written as enum ordinals, and each gate
+     * records the index of the aircraft parked there, so restore(channel)
+     * can rebuild the tower without searching for gates again.
+     *
+     * Terminals other than AirplaneTerminals and HelicopterTerminals are
+     * left out, as are aircraft parked at a gate but not managed by this
+     * tower. Restored aircraft each get their own task list.
+     * @param channel channel to write the snapshot to
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot(WritableByteChannel channel) throws IOException {
+        TowerSnapshot.write(aircrafts.view(), terminalsView, channel);
+    }
+
+    /**
+     * Creates a new control tower from a snapshot written by
+     * snapshot(WritableByteChannel).
+     * @param channel channel to read the snapshot from
+     * @return restored control tower
+     * @throws IOException if the snapshot cannot be read or is invalid
+     */
+    public static ControlTower restore(ReadableByteChannel channel)
+            throws IOException {
+        ControlTower tower = new ControlTower();
+        TowerSnapshot.read(tower, channel);
+        return tower;
     }
 
     /**
@@ -165,11 +901,788 @@ public class ControlTower implements Tickable {
      *
      * Note that the actions performed by tick() are very simple at the
      * moment and will be expanded on in assignment 2.
+     *
+     * Aircraft.tick() only changes aircraft whose current task is AWAY or
+     * LOAD, so the tower keeps track of those aircraft as their task lists
+     * move on and only ticks them. Aircraft added with addFleet(FleetStore)
+     * are ticked by their fleet store instead.
+     *
+     * After the aircraft have been ticked, aircraft that have finished
+     * loading move on (see setLoadScheduling(boolean)), then up to the
+     * runway rate of aircraft take off from the departure queue.
      */
     @Override
     public void tick() {
-        for (Aircraft aircraft : this.getAircraft()) {
+        long start = System.nanoTime();
+        TickEvent event = beginTick();
+        tickOnce();
+        metrics.ticked(System.nanoTime() - start);
+        commitTick(event, 1);
+    }
+
+    /** Returns a started tick event, or null if it is not being recorded. */
+    private static TickEvent beginTick() {
+        if (!TowerEvents.isTickEnabled()) {
+            return null;
+        }
+        TickEvent event = new TickEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Fills in and commits a tick event, if it is being recorded. */
+    private void commitTick(TickEvent event, long ticks) {
+        if (event != null && event.shouldCommit()) {
+            event.ticks = ticks;
+            event.fleetSize = aircrafts.size();
+            event.aircraftTicked = aircraftByTask.get(TaskType.AWAY).size()
+                    + aircraftByTask.get(TaskType.LOAD).size();
+            event.commit();
+        }
+    }
+
+    /** Advances the simulation by one tick, as described by tick(). */
+    private void tickOnce() {
+        tickAircraft(1);
+        recordTicks(1);
+        taskTimers.advance();
+        serveDepartures();
+    }
+
+    /**
+     * Advances the simulation by the given number of ticks, with the same
+     * result as calling tick() that many times.
+     *
+     * Each aircraft is advanced with Aircraft.tick(long), which skips the
+     * ticks that would no longer change its state.
+     * @param ticks number of ticks to advance by
+     * @throws IllegalArgumentException if ticks < 0
+     */
+    public void tick(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException();
+        }
+        long start = System.nanoTime();
+        TickEvent event = beginTick();
+        long requested = ticks;
+        //Task timers and departures move task lists on, so tick singly
+        //until they are done
+        while (ticks > 0 && (!taskTimers.isEmpty()
+                || (runwayRate > 0 && !departureQueue.isEmpty()))) {
+            tickOnce();
+            ticks--;
+        }
+        if (ticks > 0) {
+            tickAircraft(ticks);
+            taskTimers.skip(ticks);
+        }
+        recordTicks(ticks);
+        metrics.ticked(System.nanoTime() - start);
+        commitTick(event, requested);
+    }
+
+    /** Records the given number of ticks in the journal, if any. */
+    private void recordTicks(long ticks) {
+        JournalWriter journal = this.journal;
+        if (journal != null) {
+            journal.ticked(ticks);
+        }
+    }
+
+    /**
+     * Takes off up to the runway rate of aircraft from the front of the
+     * departure queue.
+     */
+    private void serveDepartures() {
+        for (int i = 0; i < runwayRate && !departureQueue.isEmpty(); i++) {
+            departureQueue.removeAircraft().getTaskList().moveToNextTask();
+        }
+    }
+
+    /**
+     * Advances every managed aircraft by the given number of ticks, either
+     * on this thread or on the tick pool.
+     */
+    private void tickAircraft(long ticks) {
+        //Aircraft.tick() only changes state while AWAY or LOAD
+        tickGroup(aircraftByTask.get(TaskType.AWAY), ticks);
+        tickGroup(aircraftByTask.get(TaskType.LOAD), ticks);
+        for (FleetRange range : fleets) {
+            tickFleet(range, ticks);
+        }
+    }
+
+    /** Advances the aircraft of a fleet range by the given number of ticks. */
+    private void tickFleet(FleetRange range, long ticks) {
+        if (tickPool == null || range.size <= TICK_CHUNK_SIZE) {
+            range.fleet.tick(0, range.size, ticks);
+        } else {
+            tickPool.invoke(new FleetTickTask(range.fleet, 0, range.size,
+                    ticks));
+        }
+    }
+
+    /** Advances every aircraft in the group by the given number of ticks. */
+    private void tickGroup(AircraftGroup group, long ticks) {
+        group.compact();
+        int positions = group.positions();
+        if (tickPool == null || positions <= TICK_CHUNK_SIZE) {
+            tickRange(group, 0, positions, ticks);
+        } else {
+            tickPool.invoke(new TickTask(group, 0, positions, ticks));
+        }
+    }
+
+    /**
+     * Advances the watched aircraft at the given range of positions in the
+     * group by the given number of ticks, skipping removed entries.
+     */
+    private static void tickRange(AircraftGroup group, int from, int to,
+                                  long ticks) {
+        for (int i = from; i < to; i++) {
+            AircraftWatcher watcher = group.memberAt(i);
+            if (watcher != null) {
+                tickOne(watcher, ticks);
+            }
+        }
+    }
+
+    /**
+     * Advances one watched aircraft by the given number of ticks, once for
+     * each time it was added to this control tower other than as part of a
+     * fleet.
+     */
+    private static void tickOne(AircraftWatcher watcher, long ticks) {
+        for (int i = watcher.fleetTicks; i < watcher.registrations; i++) {
+            tickOne(watcher.aircraft, ticks);
+        }
+    }
+
+    /** Advances one aircraft by the given number of ticks. */
+    private static void tickOne(Aircraft aircraft, long ticks) {
+        if (ticks == 1) {
             aircraft.tick();
+        } else {
+            aircraft.tick(ticks);
+        }
+    }
+
+    /**
+     * Makes tick() split the managed aircraft into chunks and tick them in
+     * parallel on a new pool of the given number of worker threads.
+     *
+     * Each aircraft's tick only changes that aircraft's own state, so the
+     * state after a parallel tick is identical to the state after a
+     * sequential one.
+     * @param parallelism number of worker threads to tick aircraft on
+     * @throws IllegalArgumentException if parallelism < 1
+     */
+    public void setParallelTick(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        replaceTickPool(new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Makes tick() split the managed aircraft into chunks and tick them in
+     * parallel on the given pool.
+     * The pool is not shut down by this control tower.
+     * @param pool pool to tick aircraft on
+     */
+    public void setParallelTick(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException();
+        }
+        replaceTickPool(pool, false);
+    }
+
+    /**
+     * Makes tick() tick every aircraft one after the other on the calling
+     * thread. This is the default.
+     */
+    public void setSequentialTick() {
+        replaceTickPool(null, false);
+    }
+
+    /**
+     * Makes each terminal's actor run its requests on a new pool of the
+     * given number of worker threads.
+     *
+     * Requests to different terminals then run in parallel, while requests
+     * to the same terminal still run one at a time in the order sent. While
+     * actors are running on other threads, terminals and gates should only
+     * be changed through their actors or through parkAircraftAsync() and
+     * aircraftLeavesAsync().
+     *
+     * This should not be called while requests are still waiting to run.
+     * @param parallelism number of worker threads to run requests on
+     * @throws IllegalArgumentException if parallelism < 1
+     */
+    public void setTerminalActors(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        replaceTerminalExecutor(new ForkJoinPool(parallelism,
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true),
+                true, true);
+    }
+
+    /**
+     * Makes each terminal's actor run its requests on the given executor.
+     * The executor is not shut down by this control tower.
+     *
+     * See setTerminalActors(int) for how terminals should then be used.
+     * @param executor executor to run requests on
+     */
+    public void setTerminalActors(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException();
+        }
+        replaceTerminalExecutor(executor, false, true);
+    }
+
+    /**
+     * Makes each terminal's actor run its requests on the thread that sends
+     * them, before the request method returns. This is the default.
+     */
+    public void setDirectTerminals() {
+        replaceTerminalExecutor(Runnable::run, false, false);
+    }
+
+    /**
+     * Returns the actor that runs requests to the given terminal.
+     * @param terminal terminal managed by this control tower
+     * @return terminal's actor, or null if the terminal is not managed by
+     * this control tower
+     */
+    public TerminalActor getTerminalActor(Terminal terminal) {
+        TerminalWatcher watcher = terminalWatchers.get(terminal);
+        return watcher == null ? null : watcher.actor;
+    }
+
+    /**
+     * Parks the given aircraft at a suitable gate, as found by
+     * findUnoccupiedGate(Aircraft), by sending the request to that gate's
+     * terminal actor.
+     *
+     * If another request fills the chosen terminal first, the next terminal
+     * with space is tried. The returned future fails with a
+     * NoSuitableGateException if no suitable gate is free.
+     * @param aircraft aircraft to park
+     * @return future completed with the gate the aircraft parked at
+     */
+    public CompletableFuture<Gate> parkAircraftAsync(Aircraft aircraft) {
+        return parkAircraftAsync(aircraft, 0);
+    }
+
+    /**
+     * Parks the given aircraft at a terminal with space, trying terminals of
+     * the aircraft's type from the given position onwards.
+     */
+    private CompletableFuture<Gate> parkAircraftAsync(Aircraft aircraft,
+                                                      int from) {
+        AircraftType type = aircraft.getCharacteristics().type;
+        int index = terminalsWithSpace.get(type).nextSetBit(from);
+        if (index < 0) {
+            metrics.gateAllocationFailed();
+            return CompletableFuture.failedFuture(
+                    new NoSuitableGateException());
+        }
+        TerminalActor actor = terminalWatchers.get(terminalsByType.get(type)
+                .get(index)).actor;
+        return actor.parkAircraft(aircraft).handle((gate, e) -> {
+            if (e instanceof NoSuitableGateException) {
+                return parkAircraftAsync(aircraft, index + 1);
+            } else if (e != null) {
+                return CompletableFuture.<Gate>failedFuture(e);
+            }
+            return CompletableFuture.completedFuture(gate);
+        }).thenCompose(result -> result);
+    }
+
+    /**
+     * Removes the given aircraft from the gate it is parked at, if any, by
+     * sending the request to that gate's terminal actor.
+     * @param aircraft aircraft that is leaving
+     * @return future completed once the aircraft has left
+     */
+    public CompletableFuture<Void> aircraftLeavesAsync(Aircraft aircraft) {
+        CompletableFuture<Void> left = releaseGate(aircraft);
+        return left == null ? CompletableFuture.completedFuture(null) : left;
+    }
+
+    /**
+     * Sends a request for the given aircraft to leave its gate to the
+     * gate's terminal actor, and returns the request's future, or null if
+     * the aircraft is not parked at a managed gate.
+     */
+    private CompletableFuture<Void> releaseGate(
+            Aircraft aircraft) {
+        Gate gate = gatesOfAircraft.get(aircraft);
+        if (gate == null) {
+            return null;
+        }
+        return terminalsOfGates.get(gate).actor.aircraftLeaves(gate);
+    }
+
+    /**
+     * Switches terminal actors to the given executor, shutting down the
+     * previous executor if it was created by this control tower.
+     */
+    private synchronized void replaceTerminalExecutor(Executor executor,
+                                                      boolean owned,
+                                                      boolean running) {
+        if (ownsTerminalExecutor) {
+            ((ExecutorService) terminalExecutor).shutdown();
+        }
+        terminalExecutor = executor;
+        ownsTerminalExecutor = owned;
+        terminalActorsRunning = running;
+        for (TerminalWatcher watcher : terminalWatchers.values()) {
+            watcher.actor = new TerminalActor(watcher.terminal, executor);
+        }
+    }
+
+    /**
+     * Switches to the given tick pool, shutting down the previous pool if it
+     * was created by this control tower.
+     */
+    private void replaceTickPool(ForkJoinPool pool, boolean owned) {
+        if (ownsTickPool) {
+            tickPool.shutdown();
+        }
+        tickPool = pool;
+        ownsTickPool = owned;
+    }
+
+    /**
+     * Ticks a contiguous range of positions in a group of aircraft,
+     * splitting it in half while it holds more than TICK_CHUNK_SIZE
+     * positions.
+     */
+    private static class TickTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** group of the aircraft being ticked */
+        private final AircraftGroup group;
+
+        /** first position in the range */
+        private final int from;
+
+        /** position after the last position in the range */
+        private final int to;
+
+        /** number of ticks to advance each aircraft by */
+        private final long ticks;
+
+        private TickTask(AircraftGroup group, int from, int to, long ticks) {
+            this.group = group;
+            this.from = from;
+            this.to = to;
+            this.ticks = ticks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TICK_CHUNK_SIZE) {
+                tickRange(group, from, to, ticks);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TickTask(group, from, middle, ticks),
+                        new TickTask(group, middle, to, ticks));
+            }
+        }
+    }
+
+    /**
+     * Ticks a contiguous range of a fleet store's slots, splitting it in half
+     * while it holds more than TICK_CHUNK_SIZE aircraft.
+     */
+    private static class FleetTickTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** fleet store holding the aircraft */
+        private final FleetStore fleet;
+
+        /** first slot in the range */
+        private final int from;
+
+        /** slot after the last slot in the range */
+        private final int to;
+
+        /** number of ticks to advance each aircraft by */
+        private final long ticks;
+
+        private FleetTickTask(FleetStore fleet, int from, int to,
+                              long ticks) {
+            this.fleet = fleet;
+            this.from = from;
+            this.to = to;
+            this.ticks = ticks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TICK_CHUNK_SIZE) {
+                fleet.tick(from, to, ticks);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FleetTickTask(fleet, from, middle, ticks),
+                        new FleetTickTask(fleet, middle, to, ticks));
+            }
+        }
+    }
+
+    /**
+     * The first slots of a fleet store, whose aircraft were added to this
+     * control tower with addFleet(FleetStore).
+     */
+    private static class FleetRange {
+
+        /** fleet store holding the aircraft */
+        private final FleetStore fleet;
+
+        /** number of slots, from slot 0, added to the tower */
+        private final int size;
+
+        private FleetRange(FleetStore fleet, int size) {
+            this.fleet = fleet;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Keeps this control tower's record of which terminals have space, and
+     * which gate each aircraft is parked at, up to date as gates are added
+     * to a terminal and aircraft park and leave.
+     */
+    private class TerminalWatcher implements GateListener, EmergencyListener {
+
+        /** terminal being watched */
+        private final Terminal terminal;
+
+        /** type of aircraft the terminal accommodates, or null if unknown */
+        private final AircraftType type;
+
+        /** position of the terminal among all managed terminals */
+        private final int id;
+
+        /** position of the terminal among terminals of the same type */
+        private final int index;
+
+        /** actor requests to the terminal are sent to */
+        private volatile TerminalActor actor;
+
+        private TerminalWatcher(Terminal terminal, AircraftType type,
+                                int id) {
+            this.terminal = terminal;
+            this.type = type;
+            this.id = id;
+            this.actor = new TerminalActor(terminal, terminalExecutor);
+            if (type != null) {
+                List<Terminal> sameType = terminalsByType.get(type);
+                this.index = sameType.size();
+                sameType.add(terminal);
+                terminalsWithSpace.get(type).ensureCapacity(index + 1);
+            } else {
+                this.index = -1;
+            }
+        }
+
+        /** Records whether the watched terminal has an unoccupied gate. */
+        private void updateSpace() {
+            if (type == null) {
+                return;
+            }
+            AtomicBitSet withSpace = terminalsWithSpace.get(type);
+            boolean space;
+            do {
+                space = terminal.hasUnoccupiedGate();
+                withSpace.set(index, space);
+                //Repeat if a gate changed since it was read, so a stale
+                //value cannot overwrite a newer one
+            } while (terminal.hasUnoccupiedGate() != space);
+        }
+
+        @Override
+        public void gateAdded(Gate gate) {
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null) {
+                journal.gateAdded(id, gate.getGateNumber());
+            }
+            terminalsOfGates.put(gate, this);
+            Aircraft parked = gate.getAircraftAtGate();
+            if (parked != null) {
+                gatesOfAircraft.put(parked, gate);
+            }
+            updateSpace();
+        }
+
+        @Override
+        public void aircraftParked(Gate gate, Aircraft aircraft) {
+            gatesOfAircraft.put(aircraft, gate);
+            updateSpace();
+            AircraftWatcher watcher = aircraftWatchers.get(aircraft);
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null && watcher != null) {
+                journal.aircraftParked(watcher.id, id, gate.getGateNumber());
+            }
+        }
+
+        @Override
+        public void aircraftLeft(Gate gate, Aircraft aircraft) {
+            gatesOfAircraft.remove(aircraft, gate);
+            updateSpace();
+            AircraftWatcher watcher = aircraftWatchers.get(aircraft);
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null && watcher != null) {
+                journal.aircraftLeft(watcher.id, id, gate.getGateNumber());
+            }
+        }
+
+        @Override
+        public void emergencyChanged(EmergencyState source) {
+            emergencies.terminalChanged(id, terminal);
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null) {
+                journal.emergencyChanged(JournalWriter.SUBJECT_TERMINAL,
+                        id, source.hasEmergency());
+            }
+        }
+    }
+
+    /**
+     * Follows a managed aircraft's task list and emergency state.
+     */
+    private class AircraftWatcher implements TaskListener, EmergencyListener,
+            LoadListener {
+
+        /** aircraft being watched */
+        private final Aircraft aircraft;
+
+        /** position the aircraft was first added at */
+        private final int id;
+
+        /** occupancy level of the aircraft as last counted in statistics */
+        private int occupancy;
+
+        /** number of times the aircraft's task list has moved on */
+        private int taskMoves;
+
+        /** number of times the aircraft has been added to the tower */
+        private int registrations;
+
+        /** number of those times it was added as part of a fleet */
+        private int fleetTicks;
+
+        /** group of aircraft with the same current task type */
+        private volatile AircraftGroup group;
+
+        /**
+         * Stamp of this watcher's current group entry; changed on removal
+         * so the entry is no longer a member
+         */
+        private volatile int membership;
+
+        private AircraftWatcher(Aircraft aircraft, int id) {
+            this.aircraft = aircraft;
+            this.id = id;
+            this.occupancy = aircraft.calculateOccupancyLevel();
+            this.registrations = 1;
+        }
+
+        @Override
+        public void loadChanged(Aircraft aircraft, double fuelDelta,
+                                int passengerDelta, int freightDelta) {
+            int occupancyDelta = 0;
+            if (passengerDelta != 0 || freightDelta != 0) {
+                int newOccupancy = aircraft.calculateOccupancyLevel();
+                occupancyDelta = newOccupancy - occupancy;
+                occupancy = newOccupancy;
+            }
+            statistics.loadChanged(aircraft, fuelDelta, passengerDelta,
+                    freightDelta, occupancyDelta);
+        }
+
+        @Override
+        public void taskAdvanced(TaskList taskList, Task previousTask) {
+            taskMoves++;
+            group.remove(this);
+            if (previousTask.getType() == TaskType.LAND) {
+                landingQueue.removeAircraft(aircraft);
+            } else if (previousTask.getType() == TaskType.TAKEOFF) {
+                departureQueue.removeAircraft(aircraft);
+            }
+            TaskType type = taskList.getCurrentTask().getType();
+            aircraftByTask.get(type).add(this);
+            if (type == TaskType.LAND) {
+                landingQueue.addAircraft(aircraft);
+            } else if (type == TaskType.TAKEOFF) {
+                //Free the gate for other aircraft while waiting for the runway
+                releaseGate(aircraft);
+                departureQueue.addAircraft(aircraft);
+            } else if (type == TaskType.LOAD && loadScheduling) {
+                scheduleLoad(this);
+            }
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null) {
+                journal.taskAdvanced(id);
+            }
+        }
+
+        @Override
+        public void emergencyChanged(EmergencyState source) {
+            landingQueue.updateAircraft(aircraft);
+            emergencies.aircraftChanged(id, aircraft);
+            JournalWriter journal = ControlTower.this.journal;
+            if (journal != null) {
+                journal.emergencyChanged(JournalWriter.SUBJECT_AIRCRAFT,
+                        id, source.hasEmergency());
+            }
+        }
+    }
+
+    /**
+     * Unordered set of aircraft watchers that several threads may add to and
+     * remove from at once without locking, iterated over by position.
+     *
+     * Each add reserves the next position with a single atomic increment,
+     * as in AircraftRegistry, and stores the watcher there together with
+     * the watcher's membership stamp. A remove only changes the stamp, which
+     * leaves the old entry behind as a stale entry that iteration skips.
+     * Stale entries are dropped by compact(). Iteration and compaction must
+     * not overlap adds and removes.
+     */
+    private static final class AircraftGroup {
+
+        /** log2 of the number of entries in a chunk */
+        private static final int CHUNK_BITS = 12;
+
+        /** Number of entries in a chunk */
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        /** Handle used to publish and read watchers in a chunk */
+        private static final VarHandle WATCHERS =
+                MethodHandles.arrayElementVarHandle(AircraftWatcher[].class);
+
+        /** Number of positions reserved, including stale entries */
+        private final AtomicInteger positions;
+
+        /** Number of watchers currently in the group */
+        private final AtomicInteger size;
+
+        /** Chunks of entries, each holding CHUNK_SIZE positions */
+        private volatile Chunk[] chunks;
+
+        private AircraftGroup() {
+            this.positions = new AtomicInteger();
+            this.size = new AtomicInteger();
+            this.chunks = new Chunk[0];
+        }
+
+        /** Adds the watcher, which must not be in a group. */
+        private void add(AircraftWatcher watcher) {
+            watcher.group = this;
+            int index = positions.getAndIncrement();
+            Chunk[] current = chunks;
+            if (index >>> CHUNK_BITS >= current.length) {
+                current = grow(index);
+            }
+            Chunk chunk = current[index >>> CHUNK_BITS];
+            chunk.stamps[index & (CHUNK_SIZE - 1)] = watcher.membership;
+            WATCHERS.setRelease(chunk.watchers, index & (CHUNK_SIZE - 1),
+                    watcher);
+            size.incrementAndGet();
+        }
+
+        /** Removes the watcher, which must be in this group. */
+        private void remove(AircraftWatcher watcher) {
+            watcher.membership++;
+            watcher.group = null;
+            size.decrementAndGet();
+        }
+
+        /** Returns the number of watchers in the group. */
+        private int size() {
+            return size.get();
+        }
+
+        /** Returns the number of positions to iterate over. */
+        private int positions() {
+            return positions.get();
+        }
+
+        /**
+         * Returns the watcher at the given position, or null if the entry
+         * there is stale.
+         */
+        private AircraftWatcher memberAt(int index) {
+            Chunk chunk = chunks[index >>> CHUNK_BITS];
+            AircraftWatcher watcher = (AircraftWatcher) WATCHERS.getAcquire(
+                    chunk.watchers, index & (CHUNK_SIZE - 1));
+            if (watcher == null || watcher.membership
+                    != chunk.stamps[index & (CHUNK_SIZE - 1)]) {
+                return null;
+            }
+            return watcher;
+        }
+
+        /**
+         * Moves the watchers still in the group to the front, dropping stale
+         * entries, once they outnumber the members.
+         */
+        private void compact() {
+            int count = positions.get();
+            if (count - size.get() <= size.get()) {
+                return;
+            }
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                AircraftWatcher watcher = memberAt(i);
+                if (watcher != null) {
+                    Chunk chunk = chunks[kept >>> CHUNK_BITS];
+                    chunk.stamps[kept & (CHUNK_SIZE - 1)] = watcher.membership;
+                    chunk.watchers[kept & (CHUNK_SIZE - 1)] = watcher;
+                    kept++;
+                }
+            }
+            for (int i = kept; i < count; i++) {
+                chunks[i >>> CHUNK_BITS].watchers[i & (CHUNK_SIZE - 1)] = null;
+            }
+            positions.set(kept);
+        }
+
+        /** Allocates chunks up to the one holding the given position. */
+        private synchronized Chunk[] grow(int index) {
+            Chunk[] current = chunks;
+            int needed = (index >>> CHUNK_BITS) + 1;
+            if (needed > current.length) {
+                Chunk[] grown = Arrays.copyOf(current,
+                        Math.max(needed, 2 * current.length));
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new Chunk();
+                }
+                chunks = grown;
+                current = grown;
+            }
+            return current;
+        }
+
+        /**
+         * Entries of a group: watchers and the membership stamp each had
+         * when added.
+         */
+        private static final class Chunk {
+
+            /** watcher at each position, or null if not yet stored */
+            private final AircraftWatcher[] watchers =
+                    new AircraftWatcher[CHUNK_SIZE];
+
+            /** membership stamp of each watcher when it was added */
+            private final int[] stamps = new int[CHUNK_SIZE];
         }
     }
 }
@@ -0,0 +1,29 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+/**
+ * Orders aircraft waiting to take off.
+ *
+ * Aircraft take off in the order in which they joined the queue.
+ */
+public class DepartureQueue extends AircraftQueue {
+
+    /**
+     * Creates a new, empty DepartureQueue.
+     */
+    public DepartureQueue() {
+        super();
+    }
+
+    /**
+     * Returns the departure priority of the given aircraft. All aircraft
+     * have the same priority, so they depart in order of arrival.
+     * @param aircraft aircraft to prioritise
+     * @return priority of the aircraft
+     */
+    @Override
+    protected long getPriority(Aircraft aircraft) {
+        return 0;
+    }
+}
@@ -0,0 +1,100 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Terminal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live sets of the aircraft and terminals that are in a state of emergency.
+ *
+ * The sets are updated as emergencies are declared and cleared, so asking
+ * whether any emergency is active takes constant time, and listing them
+ * takes time proportional to the number of emergencies rather than to the
+ * number of aircraft and terminals. Updates may come from several threads at
+ * once.
+ */
+final class EmergencyRegistry {
+
+    /** Aircraft in emergency, keyed by the position they were added at */
+    private final ConcurrentSkipListMap<Integer, Aircraft> aircraft;
+
+    /** Terminals in emergency, keyed by the position they were added at */
+    private final ConcurrentSkipListMap<Integer, Terminal> terminals;
+
+    /** Number of aircraft and terminals in emergency */
+    private final AtomicInteger count;
+
+    EmergencyRegistry() {
+        this.aircraft = new ConcurrentSkipListMap<>();
+        this.terminals = new ConcurrentSkipListMap<>();
+        this.count = new AtomicInteger();
+    }
+
+    /**
+     * Records whether the given aircraft is in a state of emergency.
+     * @param id position the aircraft was first added at
+     * @param aircraft aircraft whose state changed
+     */
+    void aircraftChanged(int id, Aircraft aircraft) {
+        update(this.aircraft, id, aircraft, aircraft.hasEmergency());
+    }
+
+    /**
+     * Records whether the given terminal is in a state of emergency.
+     * @param id position the terminal was added at
+     * @param terminal terminal whose state changed
+     */
+    void terminalChanged(int id, Terminal terminal) {
+        update(this.terminals, id, terminal, terminal.hasEmergency());
+    }
+
+    /**
+     * Returns true if any aircraft or terminal is in a state of emergency.
+     * @return whether an emergency is active
+     */
+    boolean hasEmergency() {
+        return this.count.get() != 0;
+    }
+
+    /**
+     * Returns the number of aircraft and terminals in a state of emergency.
+     * @return number of emergencies
+     */
+    int size() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns a new list of the aircraft in a state of emergency, in the
+     * order they were added.
+     * @return aircraft in emergency
+     */
+    List<Aircraft> getAircraft() {
+        return new ArrayList<>(this.aircraft.values());
+    }
+
+    /**
+     * Returns a new list of the terminals in a state of emergency, in the
+     * order they were added.
+     * @return terminals in emergency
+     */
+    List<Terminal> getTerminals() {
+        return new ArrayList<>(this.terminals.values());
+    }
+
+    /** Adds or removes an entry, keeping count in step with the maps. */
+    private <T> void update(ConcurrentSkipListMap<Integer, T> set, int id,
+                            T entry, boolean emergency) {
+        if (emergency) {
+            if (set.putIfAbsent(id, entry) == null) {
+                this.count.incrementAndGet();
+            }
+        } else if (set.remove(id) != null) {
+            this.count.decrementAndGet();
+        }
+    }
+}
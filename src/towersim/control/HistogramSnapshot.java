@@ -0,0 +1,115 @@
+package towersim.control;
+
+/**
+ * Latencies recorded by a histogram up to the moment the snapshot was taken.
+ *
+ * Percentiles are reported as the highest value of the bucket they fall in,
+ * so they may overstate the true value by up to an eighth, but never by more
+ * than the largest value recorded.
+ */
+public class HistogramSnapshot {
+
+    /** number of values in each bucket */
+    private final long[] buckets;
+
+    /** number of values recorded */
+    private final long count;
+
+    /** sum of all values recorded, in nanoseconds */
+    private final long totalNanos;
+
+    /** largest value recorded, in nanoseconds */
+    private final long maxNanos;
+
+    /**
+     * Creates a snapshot of the given bucket counts, which must not be
+     * changed afterwards.
+     */
+    HistogramSnapshot(long[] buckets, long totalNanos, long maxNanos) {
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        this.buckets = buckets;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     * @return number of latencies
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of all latencies recorded.
+     * @return total latency, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * Returns the largest latency recorded, or 0 if none were recorded.
+     * @return largest latency, in nanoseconds
+     */
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+
+    /**
+     * Returns the mean latency, or 0 if none were recorded.
+     * @return mean latency, in nanoseconds
+     */
+    public double getMeanNanos() {
+        if (this.count == 0) {
+            return 0;
+        }
+        return (double) this.totalNanos / this.count;
+    }
+
+    /**
+     * Returns the latency that the given percentage of recorded latencies
+     * are at or below, or 0 if none were recorded.
+     * @param percentile percentage of latencies, 0 to 100
+     * @return latency at that percentile, in nanoseconds
+     * @throws IllegalArgumentException if percentile < 0 or percentile > 100
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException();
+        }
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1,
+                (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length; i++) {
+            seen += this.buckets[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i),
+                        this.maxNanos);
+            }
+        }
+        return this.maxNanos;
+    }
+
+    /**
+     * Returns the human-readable string representation of this snapshot.
+     * The format of the string to return is:
+     *
+     * "count=c mean=m p50=a p99=b max=x" where latencies are in nanoseconds.
+     *
+     * @return string representation of this snapshot
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0f p50=%d p99=%d max=%d",
+                this.count, this.getMeanNanos(), this.getPercentileNanos(50),
+                this.getPercentileNanos(99), this.maxNanos);
+    }
+}
@@ -0,0 +1,33 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+
+/**
+ * Orders aircraft waiting to land.
+ *
+ * Aircraft in a state of emergency land first. Among aircraft with the same
+ * emergency state, those with the least fuel remaining (as given by
+ * Aircraft.getFuelPercentRemaining()) land first, and ties are broken by the
+ * order in which aircraft joined the queue.
+ */
+public class LandingQueue extends AircraftQueue {
+
+    /**
+     * Creates a new, empty LandingQueue.
+     */
+    public LandingQueue() {
+        super();
+    }
+
+    /**
+     * Returns the landing priority of the given aircraft: emergency state
+     * first, then fuel remaining.
+     * @param aircraft aircraft to prioritise
+     * @return priority of the aircraft
+     */
+    @Override
+    protected long getPriority(Aircraft aircraft) {
+        long emergency = aircraft.hasEmergency() ? 0 : 1;
+        return (emergency << 32) | aircraft.getFuelPercentRemaining();
+    }
+}
@@ -0,0 +1,98 @@
+package towersim.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies, in nanoseconds.
+ *
+ * Buckets are log-linear, in the style of HDR histograms: each power of two
+ * is split into SUB_BUCKETS equal buckets, so any recorded value is known to
+ * within 1 / SUB_BUCKETS of itself. The bucket array is allocated up front,
+ * so recording never allocates and costs a few atomic adds.
+ */
+final class LatencyHistogram {
+
+    /** log2 of the number of buckets each power of two is split into */
+    static final int SUB_BUCKET_BITS = 3;
+
+    /** Number of buckets each power of two is split into */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets, enough for any non-negative long */
+    static final int NUM_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    /** number of values recorded in each bucket */
+    private final AtomicLongArray buckets;
+
+    /** sum of all values recorded */
+    private final LongAdder total;
+
+    /** largest value recorded */
+    private final AtomicLong max;
+
+    LatencyHistogram() {
+        this.buckets = new AtomicLongArray(NUM_BUCKETS);
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records one latency. Negative values are recorded as 0.
+     * @param nanos latency, in nanoseconds
+     */
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.total.add(value);
+        long current = this.max.get();
+        while (value > current && !this.max.compareAndSet(current, value)) {
+            current = this.max.get();
+        }
+    }
+
+    /**
+     * Returns a copy of the values recorded so far.
+     * @return snapshot of this histogram
+     */
+    HistogramSnapshot snapshot() {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, this.total.sum(),
+                this.max.get());
+    }
+
+    /**
+     * Returns the bucket the given non-negative value is counted in.
+     * @param value value to place
+     * @return bucket index
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+                & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value counted in the given bucket.
+     * @param bucket bucket index
+     * @return highest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + sub) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+}
@@ -0,0 +1,110 @@
+package towersim.control;
+
+/**
+ * Metrics of a control tower as they were when the snapshot was taken.
+ * See ControlTower.getMetrics().
+ */
+public class MetricsSnapshot {
+
+    /** latency of ticks */
+    private final HistogramSnapshot tick;
+
+    /** latency of adding aircraft */
+    private final HistogramSnapshot addAircraft;
+
+    /** latency of gate searches */
+    private final HistogramSnapshot findUnoccupiedGate;
+
+    /** latency of parking at gates */
+    private final HistogramSnapshot parkAircraft;
+
+    /** number of times no suitable gate could be found */
+    private final long gateAllocationFailures;
+
+    /** number of times a gate was claimed by another thread first */
+    private final long gateConflicts;
+
+    MetricsSnapshot(HistogramSnapshot tick, HistogramSnapshot addAircraft,
+                    HistogramSnapshot findUnoccupiedGate,
+                    HistogramSnapshot parkAircraft,
+                    long gateAllocationFailures, long gateConflicts) {
+        this.tick = tick;
+        this.addAircraft = addAircraft;
+        this.findUnoccupiedGate = findUnoccupiedGate;
+        this.parkAircraft = parkAircraft;
+        this.gateAllocationFailures = gateAllocationFailures;
+        this.gateConflicts = gateConflicts;
+    }
+
+    /**
+     * Returns the latency of calls to ControlTower.tick() and tick(long).
+     * @return tick latency
+     */
+    public HistogramSnapshot getTickLatency() {
+        return this.tick;
+    }
+
+    /**
+     * Returns the latency of calls to ControlTower.addAircraft(Aircraft).
+     * @return add aircraft latency
+     */
+    public HistogramSnapshot getAddAircraftLatency() {
+        return this.addAircraft;
+    }
+
+    /**
+     * Returns the latency of searches for an unoccupied gate, whether made
+     * through ControlTower.findUnoccupiedGate(Aircraft) directly or while
+     * adding an aircraft.
+     * @return gate search latency
+     */
+    public HistogramSnapshot getFindUnoccupiedGateLatency() {
+        return this.findUnoccupiedGate;
+    }
+
+    /**
+     * Returns the latency of Gate.parkAircraft(Aircraft) calls made by the
+     * control tower while adding aircraft.
+     * @return parking latency
+     */
+    public HistogramSnapshot getParkAircraftLatency() {
+        return this.parkAircraft;
+    }
+
+    /**
+     * Returns the number of times a NoSuitableGateException was thrown
+     * because no suitable gate was free.
+     * @return number of gate allocation failures
+     */
+    public long getGateAllocationFailures() {
+        return this.gateAllocationFailures;
+    }
+
+    /**
+     * Returns the number of times a gate found for an aircraft was claimed
+     * by another thread before the aircraft could park there.
+     * @return number of gate conflicts
+     */
+    public long getGateConflicts() {
+        return this.gateConflicts;
+    }
+
+    /**
+     * Returns the human-readable string representation of these metrics,
+     * one line per metric.
+     *
+     * @return string representation of these metrics
+     */
+    @Override
+    public String toString() {
+        return "tick: " + this.tick + System.lineSeparator()
+                + "addAircraft: " + this.addAircraft + System.lineSeparator()
+                + "findUnoccupiedGate: " + this.findUnoccupiedGate
+                + System.lineSeparator()
+                + "parkAircraft: " + this.parkAircraft
+                + System.lineSeparator()
+                + "gateAllocationFailures: " + this.gateAllocationFailures
+                + System.lineSeparator()
+                + "gateConflicts: " + this.gateConflicts;
+    }
+}
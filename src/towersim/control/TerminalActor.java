@@ -0,0 +1,181 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serialises all requests to a single terminal through a mailbox.
+ *
+ * Requests are queued and run one at a time, in the order they were sent,
+ * on a thread of the actor's executor. Different terminals' actors run in
+ * parallel, while each terminal and its gates are only ever used by one
+ * thread at a time, so no locking is needed on them.
+ *
+ * Each terminal managed by a control tower has an actor, found with
+ * ControlTower.getTerminalActor(Terminal). Requests only run on other threads
+ * once ControlTower.setTerminalActors() has been called; until then they run
+ * on the calling thread before the request method returns.
+ */
+public class TerminalActor {
+
+    /** Largest number of requests run before yielding the thread */
+    private static final int BATCH_SIZE = 64;
+
+    /** Whether the current thread is running requests for some actor */
+    private static final ThreadLocal<Boolean> DRAINING =
+            ThreadLocal.withInitial(() -> false);
+
+    /** terminal this actor owns */
+    private final Terminal terminal;
+
+    /** executor requests are run on */
+    private final Executor executor;
+
+    /** requests waiting to run */
+    private final Queue<Runnable> mailbox;
+
+    /** whether a drain of the mailbox is queued or running */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Creates a new actor for the given terminal.
+     * @param terminal terminal to own
+     * @param executor executor to run requests on
+     */
+    TerminalActor(Terminal terminal, Executor executor) {
+        this.terminal = terminal;
+        this.executor = executor;
+        this.mailbox = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the terminal this actor owns.
+     * @return terminal
+     */
+    public Terminal getTerminal() {
+        return this.terminal;
+    }
+
+    /**
+     * Parks the given aircraft at the first unoccupied gate of the terminal.
+     * The returned future fails with a NoSuitableGateException if every gate
+     * is occupied.
+     * @param aircraft aircraft to park
+     * @return future completed with the gate the aircraft parked at
+     */
+    public CompletableFuture<Gate> parkAircraft(Aircraft aircraft) {
+        return this.send(() -> {
+            Gate gate = this.terminal.findUnoccupiedGate();
+            gate.parkAircraft(aircraft);
+            return gate;
+        });
+    }
+
+    /**
+     * Removes the aircraft parked at the given gate of the terminal, if any.
+     * @param gate gate to empty
+     * @return future completed once the gate is empty
+     */
+    public CompletableFuture<Void> aircraftLeaves(Gate gate) {
+        return this.send(() -> {
+            gate.aircraftLeaves();
+            return null;
+        });
+    }
+
+    /**
+     * Declares a state of emergency at the terminal.
+     * @return future completed once the emergency is declared
+     */
+    public CompletableFuture<Void> declareEmergency() {
+        return this.send(() -> {
+            this.terminal.declareEmergency();
+            return null;
+        });
+    }
+
+    /**
+     * Clears any state of emergency at the terminal.
+     * @return future completed once the emergency is cleared
+     */
+    public CompletableFuture<Void> clearEmergency() {
+        return this.send(() -> {
+            this.terminal.clearEmergency();
+            return null;
+        });
+    }
+
+    /**
+     * Calculates the occupancy level of the terminal.
+     * @return future completed with the occupancy level, 0 to 100
+     */
+    public CompletableFuture<Integer> calculateOccupancyLevel() {
+        return this.send(this.terminal::calculateOccupancyLevel);
+    }
+
+    /**
+     * Returns true if the calling thread is running a request for any
+     * terminal actor, so must not wait for another request to run.
+     */
+    static boolean isRunningRequest() {
+        return DRAINING.get();
+    }
+
+    /**
+     * Queues the given request and returns a future for its result.
+     * Exceptions thrown by the request complete the future exceptionally.
+     */
+    <T> CompletableFuture<T> send(Callable<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        this.mailbox.add(() -> {
+            try {
+                result.complete(request.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        this.schedule();
+        return result;
+    }
+
+    /** Queues a drain of the mailbox unless one is already queued. */
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs up to BATCH_SIZE waiting requests, then queues another drain if
+     * more are waiting, so busy terminals do not starve quiet ones.
+     */
+    private void drain() {
+        //Drains may nest when requests run on the sending thread
+        boolean outer = DRAINING.get();
+        DRAINING.set(true);
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable request = this.mailbox.poll();
+                if (request == null) {
+                    break;
+                }
+                request.run();
+            }
+        } finally {
+            DRAINING.set(outer);
+        }
+        this.scheduled.set(false);
+        if (!this.mailbox.isEmpty()) {
+            this.schedule();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package towersim.control;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs actions a given number of ticks in the future.
+ *
+ * Actions are kept in a hierarchy of wheels of WHEEL_SIZE slots each. The
+ * lowest wheel has one slot per tick; each wheel above it has one slot per
+ * full turn of the wheel below. When a higher wheel's slot comes round, its
+ * actions are moved down to the wheel that matches how far away they now
+ * are. Scheduling an action and advancing by one tick therefore take
+ * constant time, plus the time to run the actions that are due.
+ *
+ * Actions may be scheduled from any thread without locking: they are
+ * pushed onto a lock-free stack and only placed in the wheels by the thread
+ * that next advances the wheel, which also runs them. Scheduling must not
+ * overlap advancing, so the delay is counted from the same tick either way.
+ */
+final class TimingWheel {
+
+    /** Number of bits of the tick count used to pick a slot in one wheel */
+    private static final int WHEEL_BITS = 6;
+
+    /** Number of slots in each wheel */
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    /** Number of wheels; actions further away wait in the highest wheel */
+    private static final int NUM_WHEELS = 4;
+
+    /** Slots of each wheel, each holding a linked list of timers */
+    private final Timer[][] slots;
+
+    /** Number of ticks advanced so far */
+    private long now;
+
+    /** Number of timers placed in the wheels */
+    private int size;
+
+    /** Timers scheduled but not yet placed, most recent first */
+    private final AtomicReference<Timer> pending;
+
+    TimingWheel() {
+        this.slots = new Timer[NUM_WHEELS][WHEEL_SIZE];
+        this.now = 0;
+        this.size = 0;
+        this.pending = new AtomicReference<>();
+    }
+
+    /**
+     * Schedules the given action to run at the end of the given number of
+     * calls to advance().
+     *
+     * @param delay number of ticks to wait, at least 1
+     * @param action action to run
+     * @throws IllegalArgumentException if delay < 1
+     */
+    void schedule(long delay, Runnable action) {
+        if (delay < 1) {
+            throw new IllegalArgumentException();
+        }
+        Timer timer = new Timer(delay, action);
+        Timer head;
+        do {
+            head = this.pending.get();
+            timer.next = head;
+        } while (!this.pending.compareAndSet(head, timer));
+    }
+
+    /**
+     * Returns true if no actions are waiting to run.
+     * @return whether the wheel is empty
+     */
+    synchronized boolean isEmpty() {
+        return this.size == 0 && this.pending.get() == null;
+    }
+
+    /**
+     * Removes all waiting actions without running them.
+     */
+    synchronized void clear() {
+        this.pending.set(null);
+        for (Timer[] wheel : this.slots) {
+            Arrays.fill(wheel, null);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Advances by one tick and runs every action that is now due.
+     */
+    synchronized void advance() {
+        this.placePending();
+        this.now++;
+        for (int wheel = 1; wheel < NUM_WHEELS; wheel++) {
+            long turn = this.now >>> (WHEEL_BITS * wheel);
+            if ((turn << (WHEEL_BITS * wheel)) != this.now) {
+                break;
+            }
+            this.cascade(wheel, (int) (turn & (WHEEL_SIZE - 1)));
+        }
+
+        int slot = (int) (this.now & (WHEEL_SIZE - 1));
+        Timer due = reverse(this.slots[0][slot]);
+        this.slots[0][slot] = null;
+        while (due != null) {
+            Timer next = due.next;
+            this.size--;
+            due.action.run();
+            due = next;
+        }
+    }
+
+    /**
+     * Advances by the given number of ticks at once. Only allowed while no
+     * actions are waiting.
+     *
+     * @param ticks number of ticks to advance by
+     * @throws IllegalStateException if actions are waiting to run
+     */
+    synchronized void skip(long ticks) {
+        if (this.size != 0 || this.pending.get() != null) {
+            throw new IllegalStateException();
+        }
+        this.now += ticks;
+    }
+
+    /**
+     * Places every timer scheduled since the last call in the wheels, in
+     * the order they were scheduled, counting their delays from now.
+     */
+    private void placePending() {
+        Timer timer = reverse(this.pending.getAndSet(null));
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.deadline += this.now;
+            this.place(timer);
+            this.size++;
+            timer = next;
+        }
+    }
+
+    /** Moves every timer in the given slot to the wheel it now belongs in. */
+    private void cascade(int wheel, int slot) {
+        Timer timer = reverse(this.slots[wheel][slot]);
+        this.slots[wheel][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            this.place(timer);
+            timer = next;
+        }
+    }
+
+    /** Adds the timer to the slot matching how far away it is due. */
+    private void place(Timer timer) {
+        long delay = timer.deadline - this.now;
+        int wheel = 0;
+        while (wheel < NUM_WHEELS - 1
+                && delay >= 1L << (WHEEL_BITS * (wheel + 1))) {
+            wheel++;
+        }
+        int slot = (int) ((timer.deadline >>> (WHEEL_BITS * wheel))
+                & (WHEEL_SIZE - 1));
+        timer.next = this.slots[wheel][slot];
+        this.slots[wheel][slot] = timer;
+    }
+
+    /** Reverses a list of timers, so they are in the order they were added. */
+    private static Timer reverse(Timer timer) {
+        Timer reversed = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = reversed;
+            reversed = timer;
+            timer = next;
+        }
+        return reversed;
+    }
+
+    /**
+     * An action waiting to run.
+     */
+    private static class Timer {
+
+        /**
+         * tick count at which the action is due; until placed, the delay
+         * from the tick it was scheduled on
+         */
+        private long deadline;
+
+        /** action to run */
+        private final Runnable action;
+
+        /** next timer in the same slot */
+        private Timer next;
+
+        private Timer(long delay, Runnable action) {
+            this.deadline = delay;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package towersim.control;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters and latency histograms for the busiest operations of a
+ * control tower.
+ *
+ * Recording is lock-free and does not allocate, so metrics are always on.
+ * Use snapshot() to read them.
+ */
+public class TowerMetrics {
+
+    /** Latency of calls to ControlTower.tick() and tick(long) */
+    private final LatencyHistogram tick;
+
+    /** Latency of calls to ControlTower.addAircraft(Aircraft) */
+    private final LatencyHistogram addAircraft;
+
+    /** Latency of searches for an unoccupied gate */
+    private final LatencyHistogram findUnoccupiedGate;
+
+    /** Latency of Gate.parkAircraft(Aircraft) calls made by the tower */
+    private final LatencyHistogram parkAircraft;
+
+    /** Number of times no suitable gate could be found */
+    private final LongAdder gateAllocationFailures;
+
+    /** Number of times a gate was claimed by another thread first */
+    private final LongAdder gateConflicts;
+
+    /**
+     * Creates a new TowerMetrics with nothing recorded.
+     */
+    TowerMetrics() {
+        this.tick = new LatencyHistogram();
+        this.addAircraft = new LatencyHistogram();
+        this.findUnoccupiedGate = new LatencyHistogram();
+        this.parkAircraft = new LatencyHistogram();
+        this.gateAllocationFailures = new LongAdder();
+        this.gateConflicts = new LongAdder();
+    }
+
+    /**
+     * Returns a copy of everything recorded so far.
+     * @return snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(this.tick.snapshot(),
+                this.addAircraft.snapshot(),
+                this.findUnoccupiedGate.snapshot(),
+                this.parkAircraft.snapshot(),
+                this.gateAllocationFailures.sum(),
+                this.gateConflicts.sum());
+    }
+
+    /** Records the latency of a tick, in nanoseconds. */
+    void ticked(long nanos) {
+        this.tick.record(nanos);
+    }
+
+    /** Records the latency of adding an aircraft, in nanoseconds. */
+    void aircraftAdded(long nanos) {
+        this.addAircraft.record(nanos);
+    }
+
+    /** Records the latency of a gate search, in nanoseconds. */
+    void gateSearched(long nanos) {
+        this.findUnoccupiedGate.record(nanos);
+    }
+
+    /** Records the latency of parking at a gate, in nanoseconds. */
+    void aircraftParked(long nanos) {
+        this.parkAircraft.record(nanos);
+    }
+
+    /** Counts a failure to find a suitable gate. */
+    void gateAllocationFailed() {
+        this.gateAllocationFailures.increment();
+    }
+
+    /** Counts a gate that was claimed by another thread first. */
+    void gateConflict() {
+        this.gateConflicts.increment();
+    }
+}
@@ -0,0 +1,386 @@
+package towersim.control;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads the compact binary snapshot format used by
+ * ControlTower.snapshot() and ControlTower.restore().
+ *
+ * A snapshot holds, in order:
+ *
+ * a header: MAGIC and VERSION, as ints
+ * the number of aircraft, then for each aircraft its model ordinal, an
+ * emergency flag, its fuel, its passengers or freight, its callsign and its
+ * task list as task type ordinals and load percentages; an aircraft added
+ * more than once is written in full only the first time, and afterwards as
+ * AIRCRAFT_REFERENCE followed by the index of that first entry
+ * the number of terminals, then for each terminal its kind, number,
+ * emergency flag and number of gates, followed by each gate's number and
+ * the index of the aircraft parked there, or -1
+ *
+ * Input that does not follow this format is reported as an IOException.
+ */
+final class TowerSnapshot {
+
+    /** Identifies a tower snapshot ("TWR1") */
+    static final int MAGIC = 0x54575231;
+
+    /** Version of the snapshot format */
+    static final int VERSION = 3;
+
+    /** Size of the buffer used to batch channel reads and writes */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Kind written for an AirplaneTerminal */
+    private static final byte AIRPLANE_TERMINAL = 0;
+
+    /** Kind written for a HelicopterTerminal */
+    private static final byte HELICOPTER_TERMINAL = 1;
+
+    /** Written in place of a model ordinal for an aircraft seen before */
+    private static final byte AIRCRAFT_REFERENCE = (byte) 0xFF;
+
+    /** All aircraft models, indexed by ordinal */
+    private static final AircraftCharacteristics[] MODELS =
+            AircraftCharacteristics.values();
+
+    /** All task types, indexed by ordinal */
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    /** buffer data passes through on its way to or from the channel */
+    private final ByteBuffer buffer;
+
+    /**
+     * Tasks already created while reading, indexed by task type ordinal and
+     * load percent, so identical tasks are shared between task lists
+     */
+    private final Task[][] tasks;
+
+    /** scratch list each aircraft's tasks are read into */
+    private final List<Task> scratchTasks;
+
+    /** scratch array each aircraft's callsign is read into */
+    private byte[] scratchCallsign;
+
+    private TowerSnapshot() {
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.tasks = new Task[TASK_TYPES.length][0x100];
+        this.scratchTasks = new ArrayList<>();
+        this.scratchCallsign = new byte[16];
+    }
+
+    /**
+     * Writes a snapshot of the given aircraft and terminals to the channel.
+     *
+     * @param aircraft aircraft managed by the tower, in order added; may be
+     *     a live view
+     * @param terminals terminals managed by the tower, in order added
+     * @param channel channel to write to
+     * @throws IOException if the channel cannot be written to, or the tower
+     *     holds state the format cannot represent
+     */
+    static void write(List<Aircraft> aircraft, List<Terminal> terminals,
+                      WritableByteChannel channel) throws IOException {
+        new TowerSnapshot().writeAll(aircraft, terminals, channel);
+    }
+
+    /**
+     * Reads a snapshot from the channel into the given, empty, tower.
+     *
+     * @param tower tower to restore into
+     * @param channel channel to read from
+     * @throws IOException if the channel cannot be read from, or does not
+     *     hold a valid snapshot
+     */
+    static void read(ControlTower tower, ReadableByteChannel channel)
+            throws IOException {
+        new TowerSnapshot().readAll(tower, channel);
+    }
+
+    private void writeAll(List<Aircraft> aircraft, List<Terminal> terminals,
+                          WritableByteChannel channel) throws IOException {
+        //The list may be a live view, so only write what is there now
+        int numAircraft = aircraft.size();
+        Map<Aircraft, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < numAircraft; i++) {
+            indices.putIfAbsent(aircraft.get(i), i);
+        }
+
+        reserve(channel, 12);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(numAircraft);
+        for (int i = 0; i < numAircraft; i++) {
+            Aircraft plane = aircraft.get(i);
+            int first = indices.get(plane);
+            if (first == i) {
+                writeAircraft(plane, channel);
+            } else {
+                //Restore the same object, not an independent copy
+                reserve(channel, 5);
+                buffer.put(AIRCRAFT_REFERENCE);
+                buffer.putInt(first);
+            }
+        }
+
+        List<Terminal> written = new ArrayList<>();
+        for (Terminal terminal : terminals) {
+            if (terminal instanceof AirplaneTerminal
+                    || terminal instanceof HelicopterTerminal) {
+                written.add(terminal);
+            }
+        }
+        reserve(channel, 4);
+        buffer.putInt(written.size());
+        for (Terminal terminal : written) {
+            List<Gate> gates = terminal.getGatesView();
+            reserve(channel, 10);
+            buffer.put(terminal instanceof AirplaneTerminal
+                    ? AIRPLANE_TERMINAL : HELICOPTER_TERMINAL);
+            buffer.putInt(terminal.getTerminalNumber());
+            buffer.put((byte) (terminal.hasEmergency() ? 1 : 0));
+            buffer.putInt(gates.size());
+            for (Gate gate : gates) {
+                Integer parked = indices.get(gate.getAircraftAtGate());
+                reserve(channel, 8);
+                buffer.putInt(gate.getGateNumber());
+                buffer.putInt(parked == null ? -1 : parked);
+            }
+        }
+        flush(channel);
+    }
+
+    private void writeAircraft(Aircraft aircraft, WritableByteChannel channel)
+            throws IOException {
+        byte[] callsign =
+                aircraft.getCallsign().getBytes(StandardCharsets.UTF_8);
+        List<Task> tasks = aircraft.getTaskList().getTasks();
+        if (callsign.length > Short.MAX_VALUE
+                || tasks.size() > Short.MAX_VALUE) {
+            throw new IOException("Aircraft too large to snapshot");
+        }
+        reserve(channel, 20 + callsign.length + 2 * tasks.size());
+        buffer.put((byte) aircraft.getCharacteristics().ordinal());
+        buffer.put((byte) (aircraft.hasEmergency() ? 1 : 0));
+        buffer.putDouble(aircraft.getFuelAmount());
+        buffer.putInt(aircraft.getNumPassengers()
+                + aircraft.getFreightAmount());
+        buffer.putShort((short) callsign.length);
+        buffer.put(callsign);
+        buffer.putShort((short) tasks.size());
+        buffer.putShort((short) aircraft.getTaskList().getCurrentTaskIndex());
+        for (Task task : tasks) {
+            if (task.getLoadPercent() < 0 || task.getLoadPercent() > 0xFF) {
+                throw new IOException("Load percent out of range: " + task);
+            }
+            buffer.put((byte) task.getType().ordinal());
+            buffer.put((byte) task.getLoadPercent());
+        }
+    }
+
+    private void readAll(ControlTower tower, ReadableByteChannel channel)
+            throws IOException {
+        buffer.limit(0);
+        require(channel, 12);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a tower snapshot");
+        }
+        int numAircraft = checkCount(buffer.getInt());
+        //The count is not trusted, so do not size the list by it alone
+        List<Aircraft> aircraft =
+                new ArrayList<>(Math.min(numAircraft, BUFFER_SIZE));
+        for (int i = 0; i < numAircraft; i++) {
+            require(channel, 1);
+            if (buffer.get(buffer.position()) != AIRCRAFT_REFERENCE) {
+                aircraft.add(readAircraft(channel));
+                continue;
+            }
+            require(channel, 5);
+            buffer.get();
+            int first = buffer.getInt();
+            if (first < 0 || first >= i) {
+                throw corrupt();
+            }
+            aircraft.add(aircraft.get(first));
+        }
+
+        require(channel, 4);
+        int numTerminals = checkCount(buffer.getInt());
+        for (int t = 0; t < numTerminals; t++) {
+            require(channel, 10);
+            byte kind = buffer.get();
+            int terminalNumber = buffer.getInt();
+            boolean emergency = buffer.get() != 0;
+            int numGates = checkCount(buffer.getInt());
+
+            Terminal terminal;
+            if (kind == AIRPLANE_TERMINAL) {
+                terminal = new AirplaneTerminal(terminalNumber);
+            } else if (kind == HELICOPTER_TERMINAL) {
+                terminal = new HelicopterTerminal(terminalNumber);
+            } else {
+                throw corrupt();
+            }
+            try {
+                for (int g = 0; g < numGates; g++) {
+                    require(channel, 8);
+                    Gate gate = new Gate(buffer.getInt());
+                    int parked = buffer.getInt();
+                    if (parked >= 0) {
+                        gate.parkAircraft(aircraft.get(parked));
+                    }
+                    terminal.addGate(gate);
+                }
+            } catch (NoSpaceException | IndexOutOfBoundsException e) {
+                throw corrupt(e);
+            }
+            if (emergency) {
+                terminal.declareEmergency();
+            }
+            tower.addTerminal(terminal);
+        }
+
+        for (Aircraft plane : aircraft) {
+            tower.registerAircraft(plane);
+        }
+    }
+
+    private Aircraft readAircraft(ReadableByteChannel channel)
+            throws IOException {
+        require(channel, 16);
+        int modelOrdinal = Byte.toUnsignedInt(buffer.get());
+        if (modelOrdinal >= MODELS.length) {
+            throw corrupt();
+        }
+        AircraftCharacteristics model = MODELS[modelOrdinal];
+        boolean emergency = buffer.get() != 0;
+        double fuel = buffer.getDouble();
+        int load = buffer.getInt();
+        int callsignLength = checkCount(buffer.getShort());
+
+        require(channel, callsignLength + 4);
+        if (scratchCallsign.length < callsignLength) {
+            scratchCallsign = new byte[callsignLength];
+        }
+        buffer.get(scratchCallsign, 0, callsignLength);
+        String name = new String(scratchCallsign, 0, callsignLength,
+                StandardCharsets.UTF_8);
+        int numTasks = buffer.getShort();
+        int currentTask = buffer.getShort();
+        if (numTasks < 1 || currentTask < 0 || currentTask >= numTasks) {
+            throw corrupt();
+        }
+
+        require(channel, 2 * numTasks);
+        scratchTasks.clear();
+        for (int i = 0; i < numTasks; i++) {
+            int type = Byte.toUnsignedInt(buffer.get());
+            int loadPercent = Byte.toUnsignedInt(buffer.get());
+            if (type >= TASK_TYPES.length) {
+                throw corrupt();
+            }
+            Task task = tasks[type][loadPercent];
+            if (task == null) {
+                task = new Task(TASK_TYPES[type], loadPercent);
+                tasks[type][loadPercent] = task;
+            }
+            scratchTasks.add(task);
+        }
+        TaskList taskList = new TaskList(scratchTasks);
+        for (int i = 0; i < currentTask; i++) {
+            taskList.moveToNextTask();
+        }
+
+        Aircraft aircraft;
+        try {
+            aircraft = model.freightCapacity > 0
+                    ? new FreightAircraft(name, model, taskList, fuel, load)
+                    : new PassengerAircraft(name, model, taskList, fuel, load);
+        } catch (IllegalArgumentException e) {
+            //Fuel or load out of range for the model
+            throw corrupt(e);
+        }
+        if (emergency) {
+            aircraft.declareEmergency();
+        }
+        return aircraft;
+    }
+
+    /** Returns the given count read from a snapshot, if it is not negative. */
+    private static int checkCount(int count) throws IOException {
+        if (count < 0) {
+            throw corrupt();
+        }
+        return count;
+    }
+
+    /** Returns the exception thrown for a snapshot that breaks the format. */
+    private static IOException corrupt() {
+        return new IOException("Corrupt tower snapshot");
+    }
+
+    /** Returns the exception thrown for a snapshot that breaks the format. */
+    private static IOException corrupt(Exception cause) {
+        return new IOException("Corrupt tower snapshot", cause);
+    }
+
+    /** Makes room for the given number of bytes, writing out if needed. */
+    private void reserve(WritableByteChannel channel, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel);
+            if (buffer.remaining() < bytes) {
+                throw new IOException("Record too large to snapshot");
+            }
+        }
+    }
+
+    /** Writes out everything in the buffer and clears it. */
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Reads until the buffer holds at least the given number of bytes. */
+    private void require(ReadableByteChannel channel, int bytes)
+            throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > buffer.capacity()) {
+            throw corrupt();
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated tower snapshot");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -3,17 +3,42 @@ package towersim.ground;
 import towersim.aircraft.Aircraft;
 import towersim.util.NoSpaceException;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * Represents an aircraft gate with facilities for a single aircraft to be
  * parked.
+ *
+ * Gates may be parked at and left from several threads at once. Claiming a
+ * gate is a single compare-and-set, so two aircraft can never park at the
+ * same gate.
  */
 public class Gate {
 
+    /** Handle used to claim and release aircraftPark atomically */
+    private static final VarHandle AIRCRAFT_PARK;
+
+    static {
+        try {
+            AIRCRAFT_PARK = MethodHandles.lookup().findVarHandle(Gate.class,
+                    "aircraftPark", Aircraft.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /** identifying number of this gate */
     private final int gateNumber;
 
     /** The aircraft parked at this gate */
-    private Aircraft aircraftPark;
+    private volatile Aircraft aircraftPark;
+
+    /** Terminal this gate has been added to, or null if none */
+    private Terminal terminal;
+
+    /** Position of this gate within its terminal's list of gates */
+    private int terminalIndex;
 
     /**
      * Creates a new Gate with the given unique gate number.
@@ -43,10 +68,12 @@ public class Gate {
      * @throws NoSpaceException if the gate is already occupied by an aircraft
      */
     public void parkAircraft(Aircraft aircraft) throws NoSpaceException {
-        if (this.aircraftPark != null) {
+        if (!AIRCRAFT_PARK.compareAndSet(this, null, aircraft)) {
             throw new NoSpaceException();
         }
-        this.aircraftPark = aircraft;
+        if (this.terminal != null) {
+            this.terminal.gateOccupied(this.terminalIndex, aircraft);
+        }
     }
 
     /**
@@ -54,8 +81,9 @@ public class Gate {
      * If no aircraft is parked at the gate, no action should be taken.
      */
     public void aircraftLeaves() {
-        if (this.aircraftPark != null) {
-            this.aircraftPark = null;
+        Aircraft aircraft = (Aircraft) AIRCRAFT_PARK.getAndSet(this, null);
+        if (aircraft != null && this.terminal != null) {
+            this.terminal.gateVacated(this.terminalIndex, aircraft);
         }
     }
 
@@ -77,6 +105,17 @@ public class Gate {
         return this.aircraftPark;
     }
 
+    /**
+     * Records the terminal this gate belongs to, so that the terminal can be
+     * told whenever an aircraft parks at or leaves this gate.
+     * @param terminal terminal the gate was added to
+     * @param terminalIndex position of the gate in the terminal's gate list
+     */
+    void setTerminal(Terminal terminal, int terminalIndex) {
+        this.terminal = terminal;
+        this.terminalIndex = terminalIndex;
+    }
+
     /**
      * Returns the human-readable string representation of this gate.
      * The format of the string to return is
@@ -0,0 +1,33 @@
+package towersim.ground;
+
+import towersim.aircraft.Aircraft;
+
+/**
+ * Denotes an object that is told about changes to the gates of a terminal.
+ * Listeners are registered with Terminal.addGateListener(GateListener).
+ */
+public interface GateListener {
+
+    /**
+     * Called after a gate has been added to the terminal.
+     *
+     * @param gate gate that was added
+     */
+    void gateAdded(Gate gate);
+
+    /**
+     * Called after an aircraft has parked at one of the terminal's gates.
+     *
+     * @param gate gate the aircraft parked at
+     * @param aircraft aircraft that parked
+     */
+    void aircraftParked(Gate gate, Aircraft aircraft);
+
+    /**
+     * Called after an aircraft has left one of the terminal's gates.
+     *
+     * @param gate gate the aircraft left
+     * @param aircraft aircraft that left
+     */
+    void aircraftLeft(Gate gate, Aircraft aircraft);
+}
@@ -1,12 +1,20 @@
 package towersim.ground;
 
+import towersim.aircraft.Aircraft;
+import towersim.jfr.EmergencyEvent;
+import towersim.jfr.TowerEvents;
+import towersim.util.EmergencyListener;
 import towersim.util.EmergencyState;
 import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 import towersim.util.OccupancyLevel;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents an airport terminal building, containing several aircraft gates.
@@ -16,15 +24,38 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     /** Maximum possible number of gates allowed at a single terminal. */
     public static final int MAX_NUM_GATES = 6;
 
+    /** log2 of the number of gates tracked by each word of the mask */
+    private static final int WORD_BITS = 6;
+
+    /** Handle used to update words of unoccupiedGates atomically */
+    private static final VarHandle WORDS =
+            MethodHandles.arrayElementVarHandle(long[].class);
+
     /** id number for this terminal */
     private final int terminalNumber;
 
     /** Emergency state of this terminal */
     private boolean emergencyStatus;
 
+    /** Listeners told when the emergency state changes, or null if none */
+    private List<EmergencyListener> emergencyListeners;
+
     /** List of all gates in this terminal */
     private List<Gate> gates;
 
+    /** Read-only view of gates */
+    private List<Gate> gatesView;
+
+    /**
+     * Set bit i of word i / 64 means the gate at position i of gates is
+     * unoccupied. Words are sized for MAX_NUM_GATES and updated with a
+     * compare-and-set, so any number of gates can be claimed without a lock.
+     */
+    private final long[] unoccupiedGates;
+
+    /** Listeners told about changes to this terminal's gates */
+    private List<GateListener> gateListeners;
+
     /**
      * Creates a new Terminal with the given unique terminal number.
      *
@@ -40,6 +71,10 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         this.terminalNumber = terminalNumber;
         this.emergencyStatus = false;
         this.gates = new ArrayList<Gate>();
+        this.gatesView = Collections.unmodifiableList(this.gates);
+        this.unoccupiedGates =
+                new long[(MAX_NUM_GATES + (1 << WORD_BITS) - 1) >>> WORD_BITS];
+        this.gateListeners = new ArrayList<>();
     }
 
     /**
@@ -63,7 +98,22 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         if (this.gates.size() + 1 > MAX_NUM_GATES) {
             throw new NoSpaceException();
         }
+        int index = this.gates.size();
         this.gates.add(gate);
+        gate.setTerminal(this, index);
+        this.updateGate(index);
+        for (GateListener listener : this.gateListeners) {
+            listener.gateAdded(gate);
+        }
+    }
+
+    /**
+     * Registers a listener to be told whenever a gate is added to this
+     * terminal, or an aircraft parks at or leaves one of its gates.
+     * @param listener listener to register
+     */
+    public void addGateListener(GateListener listener) {
+        this.gateListeners.add(listener);
     }
 
     /**
@@ -79,6 +129,48 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
         return new ArrayList<Gate>(this.gates);
     }
 
+    /**
+     * Returns a read-only view of the gates in the terminal, in the same
+     * order as getGates().
+     *
+     * Unlike getGates(), no copy is made: the view always reflects the gates
+     * currently in the terminal, and trying to change it throws an
+     * UnsupportedOperationException.
+     * @return read-only view of terminal's gates
+     */
+    public List<Gate> getGatesView() {
+        return this.gatesView;
+    }
+
+    /**
+     * Returns the number of gates in the terminal.
+     * @return number of gates
+     */
+    public int getNumGates() {
+        return this.gates.size();
+    }
+
+    /**
+     * Returns the gate at the given position in getGates().
+     * @param index position of the gate, from 0 to getNumGates() - 1
+     * @return gate at that position
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Gate getGate(int index) {
+        return this.gates.get(index);
+    }
+
+    /**
+     * Passes each gate in the terminal to the given action, in the same
+     * order as getGates(), without copying the list.
+     * @param action action to perform on each gate
+     */
+    public void forEachGate(Consumer<? super Gate> action) {
+        for (int i = 0; i < this.gates.size(); i++) {
+            action.accept(this.gates.get(i));
+        }
+    }
+
     /**
      * Finds and returns the first non-occupied gate in this terminal.
      * Gates should be searched in the same order as in getGates().
@@ -89,19 +181,95 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
      * @throws NoSuitableGateException if all gates in this terminal are occupied
      */
     public Gate findUnoccupiedGate() throws NoSuitableGateException {
-        for (Gate gate : this.getGates()) {
-            if (!gate.isOccupied()) {
-                return gate;
+        for (int word = 0; word < this.unoccupiedGates.length; word++) {
+            long unoccupied = (long) WORDS.getVolatile(this.unoccupiedGates,
+                    word);
+            if (unoccupied != 0) {
+                return this.gates.get((word << WORD_BITS)
+                        + Long.numberOfTrailingZeros(unoccupied));
             }
         }
         throw new NoSuitableGateException();
     }
 
+    /**
+     * Returns true if at least one gate in this terminal is unoccupied, or
+     * false if the terminal has no gates or all of them are occupied.
+     * @return whether findUnoccupiedGate() would find a gate
+     */
+    public boolean hasUnoccupiedGate() {
+        for (int word = 0; word < this.unoccupiedGates.length; word++) {
+            if ((long) WORDS.getVolatile(this.unoccupiedGates, word) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the gate at the given position as occupied.
+     * Called by Gate when an aircraft parks there.
+     * @param index position of the gate in this terminal
+     * @param aircraft aircraft that parked
+     */
+    void gateOccupied(int index, Aircraft aircraft) {
+        this.updateGate(index);
+        Gate gate = this.gates.get(index);
+        for (GateListener listener : this.gateListeners) {
+            listener.aircraftParked(gate, aircraft);
+        }
+    }
+
+    /**
+     * Marks the gate at the given position as unoccupied.
+     * Called by Gate when its aircraft leaves.
+     * @param index position of the gate in this terminal
+     * @param aircraft aircraft that left
+     */
+    void gateVacated(int index, Aircraft aircraft) {
+        this.updateGate(index);
+        Gate gate = this.gates.get(index);
+        for (GateListener listener : this.gateListeners) {
+            listener.aircraftLeft(gate, aircraft);
+        }
+    }
+
+    /**
+     * Brings the bit for the gate at the given position up to date with
+     * whether that gate is occupied.
+     *
+     * The gate can be parked at or left by another thread at any time, so
+     * after each update the gate is checked again. Whichever thread changes
+     * the gate last therefore also leaves the bit matching it.
+     * @param index position of the gate in this terminal
+     */
+    private void updateGate(int index) {
+        Gate gate = this.gates.get(index);
+        int word = index >>> WORD_BITS;
+        long bit = 1L << index;
+        while (true) {
+            boolean unoccupied = !gate.isOccupied();
+            long current = (long) WORDS.getVolatile(this.unoccupiedGates,
+                    word);
+            long updated = unoccupied ? current | bit : current & ~bit;
+            if (current != updated && !WORDS.compareAndSet(
+                    this.unoccupiedGates, word, current, updated)) {
+                continue;
+            }
+            if (!gate.isOccupied() == unoccupied) {
+                return;
+            }
+        }
+    }
+
     /**
      * Declares a state of emergency.
      */
     public void declareEmergency() {
-        this.emergencyStatus = true;
+        if (!this.emergencyStatus) {
+            this.emergencyStatus = true;
+            this.fireEmergencyChanged();
+        }
     }
 
     /**
@@ -111,6 +279,36 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     public void clearEmergency() {
         if (this.emergencyStatus) {
             this.emergencyStatus = false;
+            this.fireEmergencyChanged();
+        }
+    }
+
+    /**
+     * Registers a listener to be told whenever this terminal enters or leaves
+     * a state of emergency.
+     *
+     * @param listener listener to register
+     */
+    public void addEmergencyListener(EmergencyListener listener) {
+        if (this.emergencyListeners == null) {
+            this.emergencyListeners = new ArrayList<>(1);
+        }
+        this.emergencyListeners.add(listener);
+    }
+
+    /** Tells all emergency listeners that the state of emergency changed. */
+    private void fireEmergencyChanged() {
+        if (TowerEvents.isEmergencyEnabled()) {
+            EmergencyEvent event = new EmergencyEvent();
+            event.subject = "terminal";
+            event.identifier = String.valueOf(this.terminalNumber);
+            event.declared = this.emergencyStatus;
+            event.commit();
+        }
+        if (this.emergencyListeners != null) {
+            for (EmergencyListener listener : this.emergencyListeners) {
+                listener.emergencyChanged(this);
+            }
         }
     }
 
@@ -137,15 +335,16 @@ public abstract class Terminal implements EmergencyState, OccupancyLevel {
     public int calculateOccupancyLevel() {
         //total number of gates in this terminal
         int totalGates = this.gates.size();
+        if (totalGates == 0) {
+            return 0;
+        }
         //total number of gates that have aircraft parked inside
-        int occupiedGate = 0;
-
-        for (Gate gate : this.gates) {
-            if (gate.isOccupied()) {
-                occupiedGate++;
-            }
+        int occupiedGates = totalGates;
+        for (int word = 0; word < this.unoccupiedGates.length; word++) {
+            occupiedGates -= Long.bitCount(
+                    (long) WORDS.getVolatile(this.unoccupiedGates, word));
         }
-        return (int) Math.round((double) occupiedGate / totalGates * 100);
+        return (int) Math.round((double) occupiedGates / totalGates * 100);
     }
 
     /**
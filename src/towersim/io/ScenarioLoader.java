@@ -0,0 +1,414 @@
+package towersim.io;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSuitableGateException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams aircraft out of a scenario file and adds them to a control tower.
+ *
+ * A scenario file holds one aircraft per line, as five fields separated by
+ * colons:
+ *
+ * callsign:model:fuel:load:tasks
+ *
+ * where model is the name of an AircraftCharacteristics constant, fuel is
+ * the amount of fuel onboard in litres, load is the number of passengers or
+ * kilograms of freight onboard, and tasks is a comma-separated list of task
+ * types, with LOAD tasks written as LOAD@percent. For example:
+ *
+ * QFA481:AIRBUS_A320:27200:150:WAIT,LOAD@60,TAKEOFF,AWAY,LAND
+ *
+ * Blank lines and lines starting with '#' are skipped.
+ *
+ * The file is read through a fixed-size direct buffer, so files of any size
+ * can be loaded without holding them in the heap. Fields are parsed straight
+ * from the buffer's bytes: the only string created per aircraft is its
+ * callsign, and identical tasks are shared between task lists.
+ */
+public class ScenarioLoader implements Closeable {
+
+    /** Number of aircraft parsed before they are added to a tower */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** Size of the buffer the file is read through; the longest line */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Largest load percent whose tasks are shared */
+    private static final int MAX_SHARED_PERCENT = 100;
+
+    /** All aircraft models, indexed by ordinal */
+    private static final AircraftCharacteristics[] MODELS =
+            AircraftCharacteristics.values();
+
+    /** All task types, indexed by ordinal */
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    /** Names of aircraft models as bytes, indexed by ordinal */
+    private static final byte[][] MODEL_NAMES = new byte[MODELS.length][];
+
+    /** Names of task types as bytes, indexed by ordinal */
+    private static final byte[][] TASK_NAMES = new byte[TASK_TYPES.length][];
+
+    static {
+        for (int i = 0; i < MODELS.length; i++) {
+            MODEL_NAMES[i] = MODELS[i].name().getBytes(StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < TASK_TYPES.length; i++) {
+            TASK_NAMES[i] =
+                    TASK_TYPES[i].name().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /** channel the scenario is read from */
+    private final ReadableByteChannel channel;
+
+    /** buffer the scenario passes through; holds unread bytes */
+    private final ByteBuffer buffer;
+
+    /**
+     * Tasks already created, indexed by task type ordinal and load percent,
+     * so identical tasks are shared between task lists
+     */
+    private final Task[][] tasks;
+
+    /** scratch list each aircraft's tasks are parsed into */
+    private final List<Task> scratchTasks;
+
+    /** scratch array each aircraft's callsign is copied into */
+    private byte[] scratchCallsign;
+
+    /** whether the end of the channel has been reached */
+    private boolean endOfInput;
+
+    /** number of the line last read, counting from 1 */
+    private long lineNumber;
+
+    /**
+     * Opens the scenario file at the given path for reading.
+     *
+     * @param path path of the scenario file
+     * @throws IOException if the file cannot be opened
+     */
+    public ScenarioLoader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads a scenario from the given channel, which is closed when this
+     * loader is closed.
+     *
+     * @param channel channel to read from
+     */
+    public ScenarioLoader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.limit(0);
+        this.tasks = new Task[TASK_TYPES.length][MAX_SHARED_PERCENT + 1];
+        this.scratchTasks = new ArrayList<>();
+        this.scratchCallsign = new byte[16];
+        this.endOfInput = false;
+        this.lineNumber = 0;
+    }
+
+    /**
+     * Adds every aircraft in the scenario file at the given path to the
+     * given control tower.
+     *
+     * @param path path of the scenario file
+     * @param tower tower to add aircraft to
+     * @return number of aircraft added
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static long load(Path path, ControlTower tower)
+            throws IOException {
+        try (ScenarioLoader loader = new ScenarioLoader(path)) {
+            return loader.addAll(tower, DEFAULT_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Adds every remaining aircraft in the scenario to the given control
+     * tower with ControlTower.addAircraft(Aircraft).
+     *
+     * Aircraft are parsed in batches of up to batchSize, and each batch is
+     * added before the next is parsed, so no more than one batch is held at
+     * a time. As when replaying a journal, an aircraft for which no gate is
+     * free is still added to the tower, unparked.
+     *
+     * @param tower tower to add aircraft to
+     * @param batchSize largest number of aircraft to parse before adding
+     * @return number of aircraft added
+     * @throws IOException if the scenario cannot be read or is malformed
+     * @throws IllegalArgumentException if batchSize < 1
+     */
+    public long addAll(ControlTower tower, int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        List<Aircraft> batch = new ArrayList<>(batchSize);
+        long added = 0;
+        while (true) {
+            Aircraft aircraft;
+            while (batch.size() < batchSize && (aircraft = next()) != null) {
+                batch.add(aircraft);
+            }
+            if (batch.isEmpty()) {
+                return added;
+            }
+            for (Aircraft plane : batch) {
+                try {
+                    tower.addAircraft(plane);
+                } catch (NoSuitableGateException e) {
+                    //The aircraft is managed by the tower, just not parked
+                }
+            }
+            added += batch.size();
+            batch.clear();
+        }
+    }
+
+    /**
+     * Returns the next aircraft in the scenario, or null if all aircraft
+     * have been read.
+     *
+     * @return next aircraft, or null at the end of the scenario
+     * @throws IOException if the scenario cannot be read or the next line is
+     *     malformed
+     */
+    public Aircraft next() throws IOException {
+        while (true) {
+            int end = nextLine();
+            if (end < 0) {
+                return null;
+            }
+            int start = buffer.position();
+            buffer.position(end == buffer.limit() ? end : end + 1);
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > start && buffer.get(start) != '#') {
+                return parseAircraft(start, end);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Makes sure the buffer holds a whole line from its position onwards and
+     * returns the index of the newline ending it, or of the buffer's limit if
+     * the last line has no newline. Returns -1 at the end of the scenario.
+     */
+    private int nextLine() throws IOException {
+        int scanned = buffer.position();
+        while (true) {
+            for (int i = scanned; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    lineNumber++;
+                    return i;
+                }
+            }
+            if (endOfInput) {
+                if (buffer.hasRemaining()) {
+                    lineNumber++;
+                    return buffer.limit();
+                }
+                return -1;
+            }
+            scanned = buffer.remaining();
+            if (scanned == buffer.capacity()) {
+                throw malformed("line longer than " + BUFFER_SIZE + " bytes");
+            }
+            buffer.compact();
+            if (channel.read(buffer) < 0) {
+                endOfInput = true;
+            }
+            buffer.flip();
+        }
+    }
+
+    /** Creates the aircraft described by the bytes from start to end. */
+    private Aircraft parseAircraft(int start, int end) throws IOException {
+        int callsignEnd = field(start, end);
+        int modelEnd = field(callsignEnd + 1, end);
+        int fuelEnd = field(modelEnd + 1, end);
+        int loadEnd = field(fuelEnd + 1, end);
+        if (loadEnd == end || callsignEnd == start) {
+            throw malformed("expected 5 fields");
+        }
+
+        int callsignLength = callsignEnd - start;
+        if (scratchCallsign.length < callsignLength) {
+            scratchCallsign = new byte[callsignLength];
+        }
+        for (int i = 0; i < callsignLength; i++) {
+            scratchCallsign[i] = buffer.get(start + i);
+        }
+        String callsign = new String(scratchCallsign, 0, callsignLength,
+                StandardCharsets.UTF_8);
+
+        AircraftCharacteristics model =
+                MODELS[match(MODEL_NAMES, callsignEnd + 1, modelEnd, "model")];
+        double fuel = parseDecimal(modelEnd + 1, fuelEnd);
+        long load = parseInteger(fuelEnd + 1, loadEnd);
+        if (load > Integer.MAX_VALUE) {
+            throw malformed("load out of range");
+        }
+        TaskList taskList = parseTasks(loadEnd + 1, end);
+
+        try {
+            if (model.freightCapacity > 0) {
+                return new FreightAircraft(callsign, model, taskList, fuel,
+                        (int) load);
+            }
+            return new PassengerAircraft(callsign, model, taskList, fuel,
+                    (int) load);
+        } catch (IllegalArgumentException e) {
+            throw malformed("fuel or load out of range for " + model);
+        }
+    }
+
+    /** Parses the comma-separated tasks from start to end. */
+    private TaskList parseTasks(int start, int end) throws IOException {
+        scratchTasks.clear();
+        int from = start;
+        while (from <= end) {
+            int to = from;
+            while (to < end && buffer.get(to) != ',') {
+                to++;
+            }
+            int at = from;
+            while (at < to && buffer.get(at) != '@') {
+                at++;
+            }
+            int type = match(TASK_NAMES, from, at, "task");
+            int percent = 0;
+            if (at < to) {
+                if (TASK_TYPES[type] != TaskType.LOAD) {
+                    throw malformed("only LOAD tasks take a percentage");
+                }
+                long parsed = parseInteger(at + 1, to);
+                if (parsed > Integer.MAX_VALUE) {
+                    throw malformed("load percent out of range");
+                }
+                percent = (int) parsed;
+            }
+            scratchTasks.add(task(type, percent));
+            from = to + 1;
+        }
+        return new TaskList(scratchTasks);
+    }
+
+    /** Returns a task of the given type and percent, shared if possible. */
+    private Task task(int type, int percent) {
+        if (percent > MAX_SHARED_PERCENT) {
+            return new Task(TASK_TYPES[type], percent);
+        }
+        Task task = tasks[type][percent];
+        if (task == null) {
+            task = new Task(TASK_TYPES[type], percent);
+            tasks[type][percent] = task;
+        }
+        return task;
+    }
+
+    /**
+     * Returns the index of the first colon from start, or end if there is
+     * none.
+     */
+    private int field(int start, int end) {
+        int i = start;
+        while (i < end && buffer.get(i) != ':') {
+            i++;
+        }
+        return i;
+    }
+
+    /** Returns the index of the name equal to the bytes from start to end. */
+    private int match(byte[][] names, int start, int end, String what)
+            throws IOException {
+        for (int n = 0; n < names.length; n++) {
+            byte[] name = names[n];
+            if (name.length != end - start) {
+                continue;
+            }
+            int i = 0;
+            while (i < name.length && name[i] == buffer.get(start + i)) {
+                i++;
+            }
+            if (i == name.length) {
+                return n;
+            }
+        }
+        throw malformed("unknown " + what);
+    }
+
+    /** Parses the non-negative whole number from start to end. */
+    private long parseInteger(int start, int end) throws IOException {
+        if (start == end || end - start > 18) {
+            throw malformed("expected a whole number");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed("expected a whole number");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses the non-negative decimal number from start to end. Numbers of
+     * up to 15 significant digits are converted exactly.
+     */
+    private double parseDecimal(int start, int end) throws IOException {
+        int point = start;
+        while (point < end && buffer.get(point) != '.') {
+            point++;
+        }
+        if (point == end) {
+            return parseInteger(start, end);
+        }
+        int fraction = end - point - 1;
+        if (point == start || fraction == 0 || end - start - 1 > 15) {
+            throw malformed("expected a decimal number");
+        }
+        long whole = parseInteger(start, point);
+        long decimals = parseInteger(point + 1, end);
+        long scale = 1;
+        for (int i = 0; i < fraction; i++) {
+            scale *= 10;
+        }
+        //Both values are exact in a double, so the division rounds once
+        return (double) (whole * scale + decimals) / scale;
+    }
+
+    /** Creates an exception for a malformed line, naming its number. */
+    private IOException malformed(String problem) {
+        return new IOException("Malformed scenario line " + lineNumber + ": "
+                + problem);
+    }
+}
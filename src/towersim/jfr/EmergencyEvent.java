@@ -0,0 +1,30 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder each time an aircraft or terminal enters
+ * or leaves a state of emergency.
+ */
+@Name("towersim.Emergency")
+@Label("Emergency Change")
+@Category("Towersim")
+@Description("Aircraft or terminal entering or leaving a state of emergency")
+public class EmergencyEvent extends Event {
+
+    /** Kind of entity: "aircraft" or "terminal" */
+    @Label("Subject")
+    public String subject;
+
+    /** Callsign of the aircraft, or number of the terminal */
+    @Label("Identifier")
+    public String identifier;
+
+    /** Whether an emergency was declared, rather than cleared */
+    @Label("Declared")
+    public boolean declared;
+}
@@ -0,0 +1,38 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for each search for an unoccupied gate
+ * made by ControlTower.findUnoccupiedGate(Aircraft).
+ */
+@Name("towersim.GateAllocation")
+@Label("Gate Allocation")
+@Category("Towersim")
+@Description("Control tower searching for an unoccupied gate")
+public class GateAllocationEvent extends Event {
+
+    /** Callsign of the aircraft a gate was sought for */
+    @Label("Callsign")
+    public String callsign;
+
+    /** Number of the terminal the gate is in, or -1 if none was found */
+    @Label("Terminal")
+    public int terminal;
+
+    /** Number of the gate found, or -1 if none was found */
+    @Label("Gate")
+    public int gate;
+
+    /** Whether an unoccupied gate was found */
+    @Label("Success")
+    public boolean success;
+
+    /** Number of terminals with space that were tried */
+    @Label("Scan Length")
+    public int scanLength;
+}
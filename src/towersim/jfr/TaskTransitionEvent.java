@@ -0,0 +1,30 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder each time a TaskList moves on to its
+ * next task, lasting as long as its listeners take to respond.
+ */
+@Name("towersim.TaskTransition")
+@Label("Task Transition")
+@Category("Towersim")
+@Description("Task list moving on to its next task")
+public class TaskTransitionEvent extends Event {
+
+    /** Type of the task moved on from */
+    @Label("Previous Task")
+    public String previousTask;
+
+    /** Type of the new current task */
+    @Label("Current Task")
+    public String currentTask;
+
+    /** Position of the new current task in the task list */
+    @Label("Task Index")
+    public int taskIndex;
+}
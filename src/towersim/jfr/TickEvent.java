@@ -0,0 +1,30 @@
+package towersim.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for each call to ControlTower.tick() or
+ * ControlTower.tick(long), lasting as long as the call.
+ */
+@Name("towersim.Tick")
+@Label("Tower Tick")
+@Category("Towersim")
+@Description("Control tower advancing the simulation")
+public class TickEvent extends Event {
+
+    /** Number of ticks advanced by */
+    @Label("Ticks")
+    public long ticks;
+
+    /** Number of aircraft managed by the control tower */
+    @Label("Fleet Size")
+    public int fleetSize;
+
+    /** Number of aircraft ticked, as their task is AWAY or LOAD */
+    @Label("Aircraft Ticked")
+    public int aircraftTicked;
+}
@@ -0,0 +1,67 @@
+package towersim.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * Tells code that emits towersim events whether each event is being
+ * recorded, so that no event object is created while Java Flight Recorder
+ * is not recording it.
+ *
+ * Event types are looked up once; each check only reads whether the type
+ * is enabled in a running recording.
+ */
+public final class TowerEvents {
+
+    /** Type of TickEvent */
+    private static final EventType TICK =
+            EventType.getEventType(TickEvent.class);
+
+    /** Type of GateAllocationEvent */
+    private static final EventType GATE_ALLOCATION =
+            EventType.getEventType(GateAllocationEvent.class);
+
+    /** Type of TaskTransitionEvent */
+    private static final EventType TASK_TRANSITION =
+            EventType.getEventType(TaskTransitionEvent.class);
+
+    /** Type of EmergencyEvent */
+    private static final EventType EMERGENCY =
+            EventType.getEventType(EmergencyEvent.class);
+
+    private TowerEvents() {
+    }
+
+    /**
+     * Returns true if TickEvents are being recorded.
+     * @return whether tick events are enabled in a running recording
+     */
+    public static boolean isTickEnabled() {
+        return TICK.isEnabled();
+    }
+
+    /**
+     * Returns true if GateAllocationEvents are being recorded.
+     * @return whether gate allocation events are enabled in a running
+     * recording
+     */
+    public static boolean isGateAllocationEnabled() {
+        return GATE_ALLOCATION.isEnabled();
+    }
+
+    /**
+     * Returns true if TaskTransitionEvents are being recorded.
+     * @return whether task transition events are enabled in a running
+     * recording
+     */
+    public static boolean isTaskTransitionEnabled() {
+        return TASK_TRANSITION.isEnabled();
+    }
+
+    /**
+     * Returns true if EmergencyEvents are being recorded.
+     * @return whether emergency events are enabled in a running recording
+     */
+    public static boolean isEmergencyEnabled() {
+        return EMERGENCY.isEnabled();
+    }
+}
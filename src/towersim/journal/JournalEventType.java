@@ -0,0 +1,69 @@
+package towersim.journal;
+
+/**
+ * Represents the kinds of tower state change recorded in a journal.
+ */
+public enum JournalEventType {
+
+    /** A terminal was added to the control tower. */
+    TERMINAL_ADDED,
+
+    /** A gate was added to one of the tower's terminals. */
+    GATE_ADDED,
+
+    /** An aircraft was added to the control tower. Followed by one TASK
+     * record per task in the aircraft's task list. */
+    AIRCRAFT_ADDED,
+
+    /** One task of the task list of the aircraft added just before. */
+    TASK,
+
+    /** An aircraft parked at a gate. */
+    AIRCRAFT_PARKED,
+
+    /** An aircraft left a gate. */
+    AIRCRAFT_LEFT,
+
+    /** An aircraft or terminal declared a state of emergency. */
+    EMERGENCY_DECLARED,
+
+    /** An aircraft or terminal cleared its state of emergency. */
+    EMERGENCY_CLEARED,
+
+    /** An aircraft's task list moved on to its next task. */
+    TASK_ADVANCED,
+
+    /** The control tower advanced the simulation by some number of ticks. */
+    TICKED;
+
+    /** All event types, indexed by ordinal */
+    private static final JournalEventType[] VALUES = values();
+
+    /**
+     * Returns the code this event type is stored as. Code 0 is never used,
+     * so that unwritten space in a segment reads as the end of the journal.
+     *
+     * @return code of this event type
+     */
+    byte code() {
+        return (byte) (this.ordinal() + 1);
+    }
+
+    /**
+     * Returns the event type stored as the given code, or null if the code
+     * marks the end of the written records.
+     *
+     * @param code stored code
+     * @return event type, or null for code 0
+     * @throws IllegalArgumentException if the code is not a known event type
+     */
+    static JournalEventType fromCode(byte code) {
+        if (code == 0) {
+            return null;
+        }
+        if (code < 0 || code > VALUES.length) {
+            throw new IllegalArgumentException("Unknown journal record " + code);
+        }
+        return VALUES[code - 1];
+    }
+}
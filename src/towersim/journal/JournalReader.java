@@ -0,0 +1,267 @@
+package towersim.journal;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.AircraftType;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads back the records of a journal written by JournalWriter, in the
+ * order they were written, and can replay them to rebuild a control tower.
+ */
+public class JournalReader implements Closeable {
+
+    /** All aircraft models, indexed by ordinal */
+    private static final AircraftCharacteristics[] MODELS =
+            AircraftCharacteristics.values();
+
+    /** All task types, indexed by ordinal */
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    /** directory holding the segment files */
+    private final Path directory;
+
+    /** sequence number of the current segment */
+    private int segmentNumber;
+
+    /** mapping of the current segment, or null once the end is reached */
+    private MappedByteBuffer segment;
+
+    /**
+     * Opens the journal in the given directory for reading.
+     *
+     * @param directory directory holding the journal's segments
+     * @throws IOException if the first segment cannot be read
+     */
+    public JournalReader(Path directory) throws IOException {
+        this.directory = directory;
+        this.segmentNumber = -1;
+        openNextSegment();
+    }
+
+    /**
+     * Rebuilds a control tower by replaying every record in the journal in
+     * the given directory.
+     *
+     * Terminals of a type other than AirplaneTerminal or HelicopterTerminal
+     * cannot be rebuilt, so they and the gates in them are left out.
+     *
+     * @param directory directory holding the journal's segments
+     * @return rebuilt control tower
+     * @throws IOException if the journal cannot be read
+     */
+    public static ControlTower replay(Path directory) throws IOException {
+        try (JournalReader reader = new JournalReader(directory)) {
+            return reader.replay();
+        }
+    }
+
+    /**
+     * Returns the next record in the journal, or null if all records have
+     * been read.
+     *
+     * @return next record, or null at the end of the journal
+     * @throws IOException if the next segment cannot be read
+     */
+    public JournalRecord next() throws IOException {
+        while (segment != null) {
+            if (segment.remaining() >= JournalRecord.RECORD_SIZE) {
+                JournalRecord record = JournalRecord.read(segment);
+                if (record != null) {
+                    return record;
+                }
+            }
+            openNextSegment();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+    }
+
+    /** Replays the remaining records into a new control tower. */
+    private ControlTower replay() throws IOException {
+        ControlTower tower = new ControlTower();
+        List<Terminal> terminals = new ArrayList<>();
+        List<Aircraft> aircraft = new ArrayList<>();
+
+        JournalRecord record;
+        while ((record = next()) != null) {
+            switch (record.getType()) {
+                case TERMINAL_ADDED:
+                    Terminal terminal = createTerminal(record);
+                    terminals.add(terminal);
+                    if (terminal != null) {
+                        tower.addTerminal(terminal);
+                    }
+                    break;
+                case GATE_ADDED:
+                    Terminal owner = terminals.get(record.getSubject());
+                    if (owner != null) {
+                        try {
+                            owner.addGate(new Gate(record.getValue1()));
+                        } catch (NoSpaceException e) {
+                            throw new IOException("Corrupt journal", e);
+                        }
+                    }
+                    break;
+                case AIRCRAFT_ADDED:
+                    Aircraft added = createAircraft(record);
+                    aircraft.add(added);
+                    //Only park and leave records decide where it is parked
+                    tower.registerAircraft(added);
+                    break;
+                case AIRCRAFT_PARKED:
+                    Gate parkGate = findGate(terminals, record);
+                    Aircraft parking = aircraft.get(record.getSubject());
+                    if (parkGate != null) {
+                        try {
+                            parkGate.parkAircraft(parking);
+                        } catch (NoSpaceException e) {
+                            throw new IOException("Corrupt journal", e);
+                        }
+                    }
+                    break;
+                case AIRCRAFT_LEFT:
+                    Gate leaveGate = findGate(terminals, record);
+                    if (leaveGate != null && leaveGate.getAircraftAtGate()
+                            == aircraft.get(record.getSubject())) {
+                        leaveGate.aircraftLeaves();
+                    }
+                    break;
+                case EMERGENCY_DECLARED:
+                case EMERGENCY_CLEARED:
+                    replayEmergency(record, terminals, aircraft);
+                    break;
+                case TASK_ADVANCED:
+                    aircraft.get(record.getSubject()).getTaskList()
+                            .moveToNextTask();
+                    break;
+                case TICKED:
+                    tower.tick(record.getCount());
+                    break;
+                default:
+                    throw new IOException("Unexpected " + record);
+            }
+        }
+        return tower;
+    }
+
+    /** Creates the terminal described by a TERMINAL_ADDED record. */
+    private static Terminal createTerminal(JournalRecord record) {
+        if (record.getKind() == AircraftType.AIRPLANE.ordinal()) {
+            return new AirplaneTerminal(record.getValue1());
+        } else if (record.getKind() == AircraftType.HELICOPTER.ordinal()) {
+            return new HelicopterTerminal(record.getValue1());
+        }
+        return null;
+    }
+
+    /**
+     * Creates the aircraft described by an AIRCRAFT_ADDED record, reading
+     * the TASK records that follow it.
+     */
+    private Aircraft createAircraft(JournalRecord record) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (long i = 0; i < record.getCount(); i++) {
+            JournalRecord taskRecord = next();
+            if (taskRecord == null
+                    || taskRecord.getType() != JournalEventType.TASK) {
+                throw new IOException("Missing task for " + record);
+            }
+            tasks.add(new Task(TASK_TYPES[taskRecord.getSmall()],
+                    taskRecord.getValue2()));
+        }
+        TaskList taskList = new TaskList(tasks);
+        for (int i = 0; i < record.getValue2(); i++) {
+            taskList.moveToNextTask();
+        }
+
+        AircraftCharacteristics model = MODELS[record.getKind()];
+        if (model.freightCapacity > 0) {
+            return new FreightAircraft(record.getText(), model, taskList,
+                    record.getFuel(), record.getValue1());
+        }
+        return new PassengerAircraft(record.getText(), model, taskList,
+                record.getFuel(), record.getValue1());
+    }
+
+    /**
+     * Returns the gate named by a park or leave record, or null if its
+     * terminal could not be rebuilt.
+     */
+    private static Gate findGate(List<Terminal> terminals,
+                                 JournalRecord record) throws IOException {
+        Terminal terminal = terminals.get(record.getValue1());
+        if (terminal == null) {
+            return null;
+        }
+        for (int i = 0; i < terminal.getNumGates(); i++) {
+            Gate gate = terminal.getGate(i);
+            if (gate.getGateNumber() == record.getValue2()) {
+                return gate;
+            }
+        }
+        throw new IOException("Unknown gate in " + record);
+    }
+
+    /** Declares or clears the emergency described by the record. */
+    private static void replayEmergency(JournalRecord record,
+                                        List<Terminal> terminals,
+                                        List<Aircraft> aircraft) {
+        boolean declared =
+                record.getType() == JournalEventType.EMERGENCY_DECLARED;
+        if (record.getKind() == JournalWriter.SUBJECT_TERMINAL) {
+            Terminal terminal = terminals.get(record.getSubject());
+            if (terminal == null) {
+                return;
+            }
+            if (declared) {
+                terminal.declareEmergency();
+            } else {
+                terminal.clearEmergency();
+            }
+        } else if (declared) {
+            aircraft.get(record.getSubject()).declareEmergency();
+        } else {
+            aircraft.get(record.getSubject()).clearEmergency();
+        }
+    }
+
+    /** Maps the next segment, or clears segment if there are no more. */
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        Path path = JournalWriter.segmentPath(directory, segmentNumber);
+        if (!Files.exists(path)) {
+            segment = null;
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package towersim.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single fixed-size record read from or written to a journal.
+ *
+ * Every record is RECORD_SIZE bytes long, laid out as:
+ *
+ * byte 0: event type code
+ * byte 1: kind (aircraft model ordinal, terminal kind or subject kind)
+ * bytes 2-3: small value (task type ordinal)
+ * bytes 4-7: subject (aircraft or terminal id)
+ * bytes 8-11: first value
+ * bytes 12-15: second value
+ * bytes 16-23: fuel amount
+ * bytes 24-31: count (ticks or number of tasks)
+ * byte 32: length of text in bytes
+ * bytes 33-63: text (callsign), UTF-8
+ *
+ * Which fields are used depends on the event type; see JournalWriter.
+ */
+public class JournalRecord {
+
+    /** Size of every record, in bytes. */
+    public static final int RECORD_SIZE = 64;
+
+    /** Maximum length of the text field, in bytes. */
+    public static final int MAX_TEXT_LENGTH = RECORD_SIZE - 33;
+
+    /** type of event recorded */
+    private final JournalEventType type;
+
+    /** model ordinal, terminal kind or subject kind */
+    private final int kind;
+
+    /** task type ordinal */
+    private final int small;
+
+    /** aircraft or terminal id */
+    private final int subject;
+
+    /** first event-specific value */
+    private final int value1;
+
+    /** second event-specific value */
+    private final int value2;
+
+    /** fuel amount, in litres */
+    private final double fuel;
+
+    /** number of ticks or tasks */
+    private final long count;
+
+    /** callsign, or empty */
+    private final String text;
+
+    /**
+     * Creates a new record with the given fields.
+     *
+     * @param type type of event recorded
+     * @param kind model ordinal, terminal kind or subject kind
+     * @param small task type ordinal
+     * @param subject aircraft or terminal id
+     * @param value1 first event-specific value
+     * @param value2 second event-specific value
+     * @param fuel fuel amount, in litres
+     * @param count number of ticks or tasks
+     * @param text callsign, or empty
+     */
+    JournalRecord(JournalEventType type, int kind, int small, int subject,
+                  int value1, int value2, double fuel, long count,
+                  String text) {
+        this.type = type;
+        this.kind = kind;
+        this.small = small;
+        this.subject = subject;
+        this.value1 = value1;
+        this.value2 = value2;
+        this.fuel = fuel;
+        this.count = count;
+        this.text = text;
+    }
+
+    /**
+     * Returns the type of event recorded.
+     *
+     * @return event type
+     */
+    public JournalEventType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the aircraft model ordinal, terminal kind or subject kind.
+     *
+     * @return kind field
+     */
+    public int getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the task type ordinal.
+     *
+     * @return small value field
+     */
+    public int getSmall() {
+        return small;
+    }
+
+    /**
+     * Returns the id of the aircraft or terminal the event is about.
+     *
+     * @return subject field
+     */
+    public int getSubject() {
+        return subject;
+    }
+
+    /**
+     * Returns the first event-specific value.
+     *
+     * @return first value field
+     */
+    public int getValue1() {
+        return value1;
+    }
+
+    /**
+     * Returns the second event-specific value.
+     *
+     * @return second value field
+     */
+    public int getValue2() {
+        return value2;
+    }
+
+    /**
+     * Returns the fuel amount, in litres.
+     *
+     * @return fuel field
+     */
+    public double getFuel() {
+        return fuel;
+    }
+
+    /**
+     * Returns the number of ticks or tasks.
+     *
+     * @return count field
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the callsign, or an empty string.
+     *
+     * @return text field
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Writes a record with the given fields at the buffer's position,
+     * advancing the position by RECORD_SIZE.
+     */
+    static void write(ByteBuffer buffer, JournalEventType type, int kind,
+                      int small, int subject, int value1, int value2,
+                      double fuel, long count, byte[] text) {
+        int start = buffer.position();
+        buffer.put(start, type.code());
+        buffer.put(start + 1, (byte) kind);
+        buffer.putShort(start + 2, (short) small);
+        buffer.putInt(start + 4, subject);
+        buffer.putInt(start + 8, value1);
+        buffer.putInt(start + 12, value2);
+        buffer.putDouble(start + 16, fuel);
+        buffer.putLong(start + 24, count);
+        buffer.put(start + 32, (byte) text.length);
+        for (int i = 0; i < text.length; i++) {
+            buffer.put(start + 33 + i, text[i]);
+        }
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    /**
+     * Reads the record at the buffer's position, advancing the position by
+     * RECORD_SIZE. Returns null without moving if the position holds no
+     * record.
+     */
+    static JournalRecord read(ByteBuffer buffer) {
+        int start = buffer.position();
+        JournalEventType type = JournalEventType.fromCode(buffer.get(start));
+        if (type == null) {
+            return null;
+        }
+        int textLength = buffer.get(start + 32);
+        byte[] text = new byte[textLength];
+        for (int i = 0; i < textLength; i++) {
+            text[i] = buffer.get(start + 33 + i);
+        }
+        JournalRecord record = new JournalRecord(type,
+                Byte.toUnsignedInt(buffer.get(start + 1)),
+                buffer.getShort(start + 2), buffer.getInt(start + 4),
+                buffer.getInt(start + 8), buffer.getInt(start + 12),
+                buffer.getDouble(start + 16), buffer.getLong(start + 24),
+                new String(text, StandardCharsets.UTF_8));
+        buffer.position(start + RECORD_SIZE);
+        return record;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s subject %d [%d, %d]", type, subject, value1,
+                value2);
+    }
+}
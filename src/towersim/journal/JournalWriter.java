@@ -0,0 +1,334 @@
+package towersim.journal;
+
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftType;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends tower state changes to a journal made up of memory-mapped
+ * segment files in a directory.
+ *
+ * Each change is written as one or more fixed-size JournalRecords straight
+ * into the mapped segment, so recording a change does not make a system
+ * call. When a segment is full, the writer maps a new segment file and
+ * moves on to it straight away; the full segment is forced to storage and
+ * closed on a background thread, so callers recording changes never wait
+ * for it. Segments are named by sequence number, so JournalReader can read
+ * them back in order.
+ *
+ * A writer is attached to a tower with ControlTower.setJournal(). It may be
+ * used from several threads at once; the records for each change are always
+ * written together.
+ */
+public class JournalWriter implements Closeable {
+
+    /** Default number of records held by each segment file. */
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 16;
+
+    /** Kind of the subject of an emergency record that is an aircraft. */
+    public static final int SUBJECT_AIRCRAFT = 0;
+
+    /** Kind of the subject of an emergency record that is a terminal. */
+    public static final int SUBJECT_TERMINAL = 1;
+
+    /** Kind of a terminal that accommodates neither type of aircraft. */
+    public static final int OTHER_TERMINAL = 0xFF;
+
+    /** empty text field */
+    private static final byte[] NO_TEXT = new byte[0];
+
+    /** directory holding the segment files */
+    private final Path directory;
+
+    /** size of each segment file, in bytes */
+    private final int segmentSize;
+
+    /** sequence number of the current segment */
+    private int segmentNumber;
+
+    /** channel of the current segment */
+    private FileChannel channel;
+
+    /** mapping of the current segment */
+    private MappedByteBuffer segment;
+
+    /** single thread that forces and closes full segments, in order */
+    private final ThreadPoolExecutor closer;
+
+    /** completes once every full segment handed to closer is closed */
+    private CompletableFuture<Void> retired;
+
+    /** first failure to force or close a full segment, or null if none */
+    private volatile IOException retireFailure;
+
+    /**
+     * Creates a new journal in the given directory, with segments of
+     * DEFAULT_SEGMENT_RECORDS records.
+     *
+     * @param directory directory to write segments to; created if missing
+     * @throws IOException if the first segment cannot be created, including
+     *     when the directory already holds a journal
+     */
+    public JournalWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Creates a new journal in the given directory, with segments of the
+     * given number of records.
+     *
+     * @param directory directory to write segments to; created if missing
+     * @param segmentRecords number of records held by each segment
+     * @throws IllegalArgumentException if segmentRecords < 1
+     * @throws IOException if the first segment cannot be created, including
+     *     when the directory already holds a journal
+     */
+    public JournalWriter(Path directory, int segmentRecords)
+            throws IOException {
+        if (segmentRecords < 1
+                || segmentRecords > Integer.MAX_VALUE
+                / JournalRecord.RECORD_SIZE) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = directory;
+        this.segmentSize = segmentRecords * JournalRecord.RECORD_SIZE;
+        this.segmentNumber = -1;
+        this.closer = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "journal-closer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.closer.allowCoreThreadTimeOut(true);
+        this.retired = CompletableFuture.completedFuture(null);
+        Files.createDirectories(directory);
+        openNextSegment();
+    }
+
+    /**
+     * Returns the path of the segment file with the given sequence number.
+     *
+     * @param directory journal directory
+     * @param segmentNumber sequence number of the segment
+     * @return path of the segment file
+     */
+    static Path segmentPath(Path directory, int segmentNumber) {
+        return directory.resolve(String.format("%08d.journal", segmentNumber));
+    }
+
+    /**
+     * Records that a terminal was added.
+     *
+     * @param terminalId position of the terminal in the tower
+     * @param type type of aircraft the terminal accommodates, or null
+     * @param terminalNumber terminal number
+     */
+    public synchronized void terminalAdded(int terminalId,
+                                           AircraftType type,
+                                           int terminalNumber) {
+        append(JournalEventType.TERMINAL_ADDED,
+                type == null ? OTHER_TERMINAL : type.ordinal(), 0,
+                terminalId, terminalNumber, 0, 0, 0, NO_TEXT);
+    }
+
+    /**
+     * Records that a gate was added to a terminal.
+     *
+     * @param terminalId position of the terminal in the tower
+     * @param gateNumber gate number
+     */
+    public synchronized void gateAdded(int terminalId, int gateNumber) {
+        append(JournalEventType.GATE_ADDED, 0, 0, terminalId, gateNumber, 0,
+                0, 0, NO_TEXT);
+    }
+
+    /**
+     * Records that an aircraft was added, followed by its task list.
+     *
+     * The record holds the aircraft's model, fuel, passengers or freight,
+     * callsign and position in its task list.
+     *
+     * @param aircraftId position of the aircraft in the tower
+     * @param aircraft aircraft that was added
+     * @throws IllegalArgumentException if the callsign is longer than
+     *     JournalRecord.MAX_TEXT_LENGTH bytes
+     */
+    public synchronized void aircraftAdded(int aircraftId, Aircraft aircraft) {
+        byte[] callsign =
+                aircraft.getCallsign().getBytes(StandardCharsets.UTF_8);
+        if (callsign.length > JournalRecord.MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Callsign too long to journal");
+        }
+        TaskList taskList = aircraft.getTaskList();
+        List<Task> tasks = taskList.getTasks();
+        int load = aircraft.getNumPassengers() + aircraft.getFreightAmount();
+        append(JournalEventType.AIRCRAFT_ADDED,
+                aircraft.getCharacteristics().ordinal(), 0, aircraftId, load,
+                taskList.getCurrentTaskIndex(), aircraft.getFuelAmount(),
+                tasks.size(), callsign);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            append(JournalEventType.TASK, 0, task.getType().ordinal(),
+                    aircraftId, i, task.getLoadPercent(), 0, 0, NO_TEXT);
+        }
+    }
+
+    /**
+     * Records that an aircraft parked at a gate.
+     *
+     * @param aircraftId position of the aircraft in the tower
+     * @param terminalId position of the gate's terminal in the tower
+     * @param gateNumber gate number
+     */
+    public synchronized void aircraftParked(int aircraftId, int terminalId,
+                                            int gateNumber) {
+        append(JournalEventType.AIRCRAFT_PARKED, 0, 0, aircraftId,
+                terminalId, gateNumber, 0, 0, NO_TEXT);
+    }
+
+    /**
+     * Records that an aircraft left a gate.
+     *
+     * @param aircraftId position of the aircraft in the tower
+     * @param terminalId position of the gate's terminal in the tower
+     * @param gateNumber gate number
+     */
+    public synchronized void aircraftLeft(int aircraftId, int terminalId,
+                                          int gateNumber) {
+        append(JournalEventType.AIRCRAFT_LEFT, 0, 0, aircraftId, terminalId,
+                gateNumber, 0, 0, NO_TEXT);
+    }
+
+    /**
+     * Records that an aircraft or terminal declared or cleared a state of
+     * emergency.
+     *
+     * @param subjectKind SUBJECT_AIRCRAFT or SUBJECT_TERMINAL
+     * @param subjectId position of the aircraft or terminal in the tower
+     * @param emergency true if declared; false if cleared
+     */
+    public synchronized void emergencyChanged(int subjectKind,
+                                              int subjectId,
+                                              boolean emergency) {
+        append(emergency ? JournalEventType.EMERGENCY_DECLARED
+                        : JournalEventType.EMERGENCY_CLEARED,
+                subjectKind, 0, subjectId, 0, 0, 0, 0, NO_TEXT);
+    }
+
+    /**
+     * Records that an aircraft's task list moved on to its next task.
+     *
+     * @param aircraftId position of the aircraft in the tower
+     */
+    public synchronized void taskAdvanced(int aircraftId) {
+        append(JournalEventType.TASK_ADVANCED, 0, 0, aircraftId, 0, 0, 0, 0,
+                NO_TEXT);
+    }
+
+    /**
+     * Records that the tower advanced the simulation.
+     *
+     * @param ticks number of ticks advanced
+     */
+    public synchronized void ticked(long ticks) {
+        append(JournalEventType.TICKED, 0, 0, 0, 0, 0, 0, ticks, NO_TEXT);
+    }
+
+    /**
+     * Forces all records written so far out to the storage device.
+     *
+     * This waits for full segments still being closed in the background.
+     *
+     * @throws UncheckedIOException if a full segment could not be forced
+     *     or closed
+     */
+    public synchronized void flush() {
+        retired.join();
+        IOException failure = retireFailure;
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        segment.force();
+    }
+
+    /**
+     * Flushes and closes the current segment, after waiting for full
+     * segments still being closed in the background.
+     *
+     * @throws IOException if a segment cannot be forced or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            channel.close();
+            throw e.getCause();
+        } finally {
+            closer.shutdown();
+        }
+        channel.close();
+    }
+
+    /** Writes one record, moving to a new segment if this one is full. */
+    private void append(JournalEventType type, int kind, int small,
+                        int subject, int value1, int value2, double fuel,
+                        long count, byte[] text) {
+        if (!segment.hasRemaining()) {
+            FileChannel fullChannel = channel;
+            MappedByteBuffer fullSegment = segment;
+            try {
+                openNextSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            retired = retired.thenRunAsync(
+                    () -> retire(fullChannel, fullSegment), closer);
+        }
+        JournalRecord.write(segment, type, kind, small, subject, value1,
+                value2, fuel, count, text);
+    }
+
+    /**
+     * Forces a full segment to storage and closes its channel. Runs on the
+     * closer thread; a failure is kept to be reported by flush() or close().
+     */
+    private void retire(FileChannel fullChannel,
+                        MappedByteBuffer fullSegment) {
+        try {
+            fullSegment.force();
+            fullChannel.close();
+        } catch (IOException | UncheckedIOException e) {
+            if (retireFailure == null) {
+                retireFailure = e instanceof IOException ? (IOException) e
+                        : ((UncheckedIOException) e).getCause();
+            }
+        }
+    }
+
+    /** Creates and maps the segment after the current one. */
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        channel = FileChannel.open(segmentPath(directory, segmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                segmentSize);
+    }
+}
@@ -1,6 +1,10 @@
 package towersim.tasks;
 
-import java.util.LinkedList;
+import towersim.jfr.TaskTransitionEvent;
+import towersim.jfr.TowerEvents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -8,14 +12,14 @@ import java.util.List;
  */
 public class TaskList {
 
-    /** The current task pointed to on the list */
-    private Task currentTask;
+    /** Position of the current task in tasksAvailable */
+    private int currentIndex;
 
-    /** number of Tasks in the list */
-    private int totalTasks;
+    /** Tasks available for the aircraft to cycle through */
+    private final Task[] tasksAvailable;
 
-    /** List of the tasks available for the aircraft to cycle through */
-    private List<Task> tasksAvailable;
+    /** Listeners told when the current task moves, or null if none */
+    private List<TaskListener> listeners;
 
     /**
      * Creates a new TaskList with the given list of tasks.
@@ -26,9 +30,11 @@ public class TaskList {
      * @param tasks list of tasks
      */
     public TaskList(List<Task> tasks) {
-        this.tasksAvailable = new LinkedList<>(tasks);
-        this.currentTask = this.tasksAvailable.get(0);
-        this.totalTasks = tasksAvailable.size();
+        this.tasksAvailable = tasks.toArray(new Task[0]);
+        if (this.tasksAvailable.length == 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.currentIndex = 0;
     }
 
     /**
@@ -37,7 +43,7 @@ public class TaskList {
      * @return current task
      */
     public Task getCurrentTask() {
-        return this.currentTask;
+        return this.tasksAvailable[this.currentIndex];
     }
 
     /**
@@ -51,12 +57,7 @@ public class TaskList {
      * @return next task
      */
     public Task getNextTask() {
-        int currentTaskIndex = tasksAvailable.indexOf(this.getCurrentTask());
-        currentTaskIndex += 1;
-        if (currentTaskIndex >= totalTasks) {
-            currentTaskIndex = 0;
-        }
-        return this.tasksAvailable.get(currentTaskIndex);
+        return this.tasksAvailable[this.nextIndex()];
     }
 
     /**
@@ -70,7 +71,73 @@ public class TaskList {
      *
      */
     public void moveToNextTask() {
-        this.currentTask = this.getNextTask();
+        //Only create an event while it is being recorded
+        TaskTransitionEvent event = null;
+        if (TowerEvents.isTaskTransitionEnabled()) {
+            event = new TaskTransitionEvent();
+            event.begin();
+        }
+        Task previousTask = this.getCurrentTask();
+        this.currentIndex = this.nextIndex();
+        if (this.listeners != null) {
+            for (TaskListener listener : this.listeners) {
+                listener.taskAdvanced(this, previousTask);
+            }
+        }
+        if (event != null && event.shouldCommit()) {
+            event.previousTask = previousTask.getType().name();
+            event.currentTask = this.getCurrentTask().getType().name();
+            event.taskIndex = this.currentIndex;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns all tasks in the list, in order, starting from the first task
+     * given when the list was created.
+     *
+     * Adding or removing elements from the returned list should not affect
+     * the original list.
+     *
+     * @return list of tasks
+     */
+    public List<Task> getTasks() {
+        return new ArrayList<>(Arrays.asList(this.tasksAvailable));
+    }
+
+    /**
+     * Returns the position of the current task in the list returned by
+     * getTasks(), starting from 0.
+     *
+     * @return index of current task
+     */
+    public int getCurrentTaskIndex() {
+        return this.currentIndex;
+    }
+
+    /**
+     * Registers a listener to be told whenever this task list moves on to
+     * its next task.
+     *
+     * @param listener listener to register
+     */
+    public void addTaskListener(TaskListener listener) {
+        if (this.listeners == null) {
+            this.listeners = new ArrayList<>(1);
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Returns the position of the task after the current task, wrapping
+     * around to the start of the list.
+     */
+    private int nextIndex() {
+        int nextIndex = this.currentIndex + 1;
+        if (nextIndex >= this.tasksAvailable.length) {
+            nextIndex = 0;
+        }
+        return nextIndex;
     }
 
     /**
@@ -94,8 +161,8 @@ public class TaskList {
     public String toString() {
         String str = String.format("TaskList currently on %s [%d/%d]",
                 this.getCurrentTask(),
-                tasksAvailable.indexOf(this.getCurrentTask()) + 1,
-                this.totalTasks);
+                this.currentIndex + 1,
+                this.tasksAvailable.length);
         return str;
     }
 }
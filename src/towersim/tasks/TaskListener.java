@@ -0,0 +1,17 @@
+package towersim.tasks;
+
+/**
+ * Denotes an object that is told when a task list moves on to its next task.
+ * Listeners are registered with TaskList.addTaskListener(TaskListener).
+ */
+public interface TaskListener {
+
+    /**
+     * Called after the task list's current task has moved forward by one.
+     * The new task is given by taskList.getCurrentTask().
+     *
+     * @param taskList task list that moved
+     * @param previousTask task that was current before the move
+     */
+    void taskAdvanced(TaskList taskList, Task previousTask);
+}
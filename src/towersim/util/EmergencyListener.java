@@ -0,0 +1,16 @@
+package towersim.util;
+
+/**
+ * Denotes an object that is told when an entity enters or leaves a state of
+ * emergency.
+ */
+public interface EmergencyListener {
+
+    /**
+     * Called after the given entity's state of emergency has changed.
+     * The new state is given by source.hasEmergency().
+     *
+     * @param source entity whose state of emergency changed
+     */
+    void emergencyChanged(EmergencyState source);
+}
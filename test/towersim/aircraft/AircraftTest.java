@@ -101,6 +101,43 @@ public class AircraftTest {
 //        assertTrue(Math.abs(reFuel - aircraftA.fuelAmount) < 0.001);
     }
 
+    @Test
+    public void tickManyMatchesSingleTicks() {
+        for (int task = 0; task < 5; task++) {
+            for (int ticks = 0; ticks < 15; ticks++) {
+                List<Task> tasks = new LinkedList<>();
+                tasks.add(away);
+                tasks.add(load20);
+                tasks.add(load60);
+                PassengerAircraft single = new PassengerAircraft("S",
+                        AircraftCharacteristics.BOEING_787,
+                        new TaskList(tasks), 63103, 12);
+                PassengerAircraft many = new PassengerAircraft("M",
+                        AircraftCharacteristics.BOEING_787,
+                        new TaskList(tasks), 63103, 12);
+                for (int i = 0; i < task; i++) {
+                    single.getTaskList().moveToNextTask();
+                    many.getTaskList().moveToNextTask();
+                }
+                for (int i = 0; i < ticks; i++) {
+                    single.tick();
+                }
+                many.tick(ticks);
+                assertEquals(single.getFuelAmount(), many.getFuelAmount(), 0);
+                assertEquals(single.getTotalWeight(), many.getTotalWeight(),
+                        0);
+            }
+        }
+    }
+
+    @Test
+    public void tickManyFreight() {
+        aircraftB.tasks.moveToNextTask();
+        aircraftB.tick(1000000000L);
+        assertEquals(3328, aircraftB.getFuelAmount(), 0);
+        assertEquals(100, aircraftB.calculateOccupancyLevel());
+    }
+
     @Test
     public void testToString() {
         String aircraftASTR = "AIRPLANE ARC AIRBUS_A320 WAIT";
@@ -0,0 +1,111 @@
+package towersim.aircraft;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FleetStoreTest {
+
+    //Field Variables
+    private FleetStore store;
+    private List<Task> tasks;
+
+    @Before
+    public void setUp() {
+        store = new FleetStore();
+
+        //Populate task list with tasks
+        tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(new Task(TaskType.LOAD, 60));
+        tasks.add(new Task(TaskType.TAKEOFF));
+    }
+
+    @Test
+    public void constructorInvalidTest() {
+        try {
+            store.addPassengerAircraft("P1",
+                    AircraftCharacteristics.FOKKER_100, new TaskList(tasks),
+                    10000, 98);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //too many passengers
+        }
+        try {
+            store.addFreightAircraft("F1",
+                    AircraftCharacteristics.BOEING_747_8F,
+                    new TaskList(tasks), -1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //negative fuel
+        }
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void tickMatchesAircraftTest() {
+        List<Aircraft> objects = new ArrayList<>();
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            double fuel = model.fuelCapacity / 3;
+            TaskList objectTasks = new TaskList(tasks);
+            TaskList storedTasks = new TaskList(tasks);
+            if (model.freightCapacity > 0) {
+                objects.add(new FreightAircraft("F" + model, model,
+                        objectTasks, fuel, model.freightCapacity / 4));
+                store.addFreightAircraft("F" + model, model, storedTasks,
+                        fuel, model.freightCapacity / 4);
+            } else {
+                objects.add(new PassengerAircraft("P" + model, model,
+                        objectTasks, fuel, model.passengerCapacity / 4));
+                store.addPassengerAircraft("P" + model, model, storedTasks,
+                        fuel, model.passengerCapacity / 4);
+            }
+        }
+        assertEquals(objects.size(), store.size());
+
+        for (int round = 0; round < 12; round++) {
+            for (int i = 0; i < objects.size(); i++) {
+                Aircraft expected = objects.get(i);
+                Aircraft actual = store.get(i);
+                assertEquals(expected.getFuelAmount(),
+                        actual.getFuelAmount(), 0);
+                assertEquals(expected.getTotalWeight(),
+                        actual.getTotalWeight(), 0);
+                assertEquals(expected.calculateOccupancyLevel(),
+                        actual.calculateOccupancyLevel());
+                assertEquals(expected.getLoadingTime(),
+                        actual.getLoadingTime());
+                assertEquals(expected.toString(), actual.toString());
+            }
+            for (Aircraft aircraft : objects) {
+                aircraft.tick();
+            }
+            store.tick();
+            //Spend three ticks on each task
+            if (round % 3 == 2) {
+                for (int i = 0; i < objects.size(); i++) {
+                    objects.get(i).getTaskList().moveToNextTask();
+                    store.get(i).getTaskList().moveToNextTask();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void handleTickTest() {
+        Aircraft handle = store.addPassengerAircraft("P1",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                27200, 0);
+        handle.tick();
+        assertEquals(24480, handle.getFuelAmount(), 0.001);
+        assertEquals(90, handle.getFuelPercentRemaining());
+    }
+}
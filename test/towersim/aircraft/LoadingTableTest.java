@@ -0,0 +1,50 @@
+package towersim.aircraft;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LoadingTableTest {
+
+    @Test
+    public void passengerTableMatchesFormulaTest() {
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            for (int percent = 0; percent <= 150; percent++) {
+                int time = PassengerAircraft.loadingTime(
+                        model.passengerCapacity, percent);
+                assertEquals(time,
+                        LoadingTable.PASSENGER.loadingTime(model, percent));
+                assertEquals(PassengerAircraft.passengersPerTick(
+                        model.passengerCapacity, percent, time),
+                        LoadingTable.PASSENGER.loadPerTick(model, percent));
+                assertEquals(model.fuelCapacity / time,
+                        LoadingTable.PASSENGER.refuelPerTick(model, percent),
+                        0);
+            }
+        }
+    }
+
+    @Test
+    public void freightTableMatchesFormulaTest() {
+        for (AircraftCharacteristics model : AircraftCharacteristics.values()) {
+            for (int percent = 0; percent <= 150; percent++) {
+                int time = FreightAircraft.loadingTime(
+                        model.freightCapacity, percent);
+                assertEquals(time,
+                        LoadingTable.FREIGHT.loadingTime(model, percent));
+                assertEquals(FreightAircraft.freightPerTick(
+                        model.freightCapacity, percent, time),
+                        LoadingTable.FREIGHT.loadPerTick(model, percent));
+                assertEquals(model.fuelCapacity / time,
+                        LoadingTable.FREIGHT.refuelPerTick(model, percent),
+                        0);
+            }
+        }
+    }
+
+    @Test
+    public void ofSelectsTableTest() {
+        assertEquals(LoadingTable.FREIGHT, LoadingTable.of(true));
+        assertEquals(LoadingTable.PASSENGER, LoadingTable.of(false));
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.Before;
 import org.junit.Test;
 import towersim.aircraft.Aircraft;
 import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.AircraftType;
+import towersim.aircraft.FleetStore;
 import towersim.aircraft.FreightAircraft;
 import towersim.aircraft.PassengerAircraft;
 import towersim.ground.AirplaneTerminal;
@@ -17,7 +19,12 @@ import towersim.util.NoSpaceException;
 import towersim.util.NoSuitableGateException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -108,7 +115,9 @@ public class ControlTowerTest {
 
 
     @Test
-    public void addAircraftTest() {
+    public void addAircraftTest() throws NoSpaceException {
+        terminalA1.addGate(gateA);
+        control1.addTerminal(terminalA1);
         try {
             control1.addAircraft(planeP1);
         } catch (NoSuitableGateException e) {
@@ -144,12 +153,562 @@ public class ControlTowerTest {
     }
 
     @Test
-    public void findUnoccupiedGateTest() {
+    public void findUnoccupiedGateTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        terminalH1.addGate(gateB);
+        control1.addTerminal(terminalH1);
+        control1.addTerminal(terminalA1);
+        assertSame(gateA, control1.findUnoccupiedGate(planeP1));
+    }
+
+    @Test
+    public void findUnoccupiedGateFallthroughTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        terminalA2.addGate(gateB);
+        control1.addTerminal(terminalA1);
+        control1.addTerminal(terminalA2);
+
+        control1.addAircraft(planeP1);
+        assertSame(gateB, control1.findUnoccupiedGate(planeP2));
+
+        gateA.aircraftLeaves();
+        assertSame(gateA, control1.findUnoccupiedGate(planeP2));
+    }
+
+    @Test
+    public void findUnoccupiedGateAddedLaterTest() throws NoSpaceException,
+            NoSuitableGateException {
+        control1.addTerminal(terminalA1);
+        try {
+            control1.findUnoccupiedGate(planeP1);
+            fail();
+        } catch (NoSuitableGateException e) {
+            //terminal has no gates yet
+        }
+        terminalA1.addGate(gateC);
+        assertSame(gateC, control1.findUnoccupiedGate(planeP1));
+    }
+
+    @Test
+    public void parallelTickMatchesSequentialTest()
+            throws NoSuitableGateException {
+        ControlTower sequential = new ControlTower();
+        ControlTower parallel = new ControlTower();
+        parallel.setParallelTick(4);
+
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(away);
+        tasks.add(load60);
+        for (int i = 0; i < 3 * ControlTower.TICK_CHUNK_SIZE; i++) {
+            double fuel = i % 27200;
+            Aircraft first = new PassengerAircraft("S" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(tasks), fuel, i % 150);
+            Aircraft second = new PassengerAircraft("P" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(tasks), fuel, i % 150);
+            sequential.addAircraft(first);
+            parallel.addAircraft(second);
+            //Every second aircraft is loading rather than flying
+            if (i % 2 == 1) {
+                first.getTaskList().moveToNextTask();
+                second.getTaskList().moveToNextTask();
+            }
+        }
+        for (int tick = 0; tick < 3; tick++) {
+            sequential.tick();
+            parallel.tick();
+        }
+        parallel.setSequentialTick();
+
+        List<Aircraft> expected = sequential.getAircraft();
+        List<Aircraft> actual = parallel.getAircraft();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getFuelAmount(),
+                    actual.get(i).getFuelAmount(), 0);
+            assertEquals(expected.get(i).getTotalWeight(),
+                    actual.get(i).getTotalWeight(), 0);
+        }
+    }
+
+    @Test
+    public void fleetTickMatchesAircraftTest()
+            throws NoSuitableGateException {
+        ControlTower objects = new ControlTower();
+        ControlTower fleetTower = new ControlTower();
+        fleetTower.setParallelTick(4);
+        FleetStore fleet = new FleetStore();
+
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(away);
+        tasks.add(load60);
+        for (int i = 0; i < 3 * ControlTower.TICK_CHUNK_SIZE; i++) {
+            double fuel = i % 27200;
+            objects.addAircraft(new PassengerAircraft("P" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(tasks), fuel, i % 150));
+            fleet.addPassengerAircraft("P" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(tasks), fuel, i % 150);
+        }
+        fleetTower.addFleet(fleet);
+        //Added again on its own, so ticked twice per tick
+        fleetTower.addAircraft(fleet.get(0));
+        objects.addAircraft(objects.getAircraft(0));
+
+        for (int tick = 0; tick < 6; tick++) {
+            objects.tick();
+            fleetTower.tick();
+            //Every second aircraft moves on to loading after three ticks
+            if (tick == 2) {
+                for (int i = 1; i < fleet.size(); i += 2) {
+                    objects.getAircraft(i).getTaskList().moveToNextTask();
+                    fleet.get(i).getTaskList().moveToNextTask();
+                }
+            }
+        }
+        objects.tick(20);
+        fleetTower.tick(20);
+        fleetTower.setSequentialTick();
+
+        for (int i = 0; i < fleet.size(); i++) {
+            Aircraft expected = objects.getAircraft(i);
+            Aircraft actual = fleetTower.getAircraft(i);
+            assertEquals(expected.getFuelAmount(), actual.getFuelAmount(), 0);
+            assertEquals(expected.getNumPassengers(),
+                    actual.getNumPassengers());
+        }
+        assertEquals(objects.getStatistics().getTotalFuel(),
+                fleetTower.getStatistics().getTotalFuel(), 0.001);
+    }
+
+    @Test
+    public void statisticsMatchFullScanTest()
+            throws NoSuitableGateException {
+        ControlTower tower = new ControlTower();
+        tower.setParallelTick(4);
+
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(away);
+        tasks.add(load60);
+        for (int i = 0; i < 2 * ControlTower.TICK_CHUNK_SIZE; i++) {
+            Aircraft aircraft;
+            if (i % 3 == 0) {
+                aircraft = new FreightAircraft("F" + i,
+                        AircraftCharacteristics.BOEING_747_8F,
+                        new TaskList(tasks), i % 226000, i % 137756);
+            } else {
+                aircraft = new PassengerAircraft("P" + i,
+                        AircraftCharacteristics.AIRBUS_A320,
+                        new TaskList(tasks), i % 27200, i % 150);
+            }
+            tower.addAircraft(aircraft);
+            if (i % 2 == 1) {
+                aircraft.getTaskList().moveToNextTask();
+            }
+        }
+        for (int tick = 0; tick < 3; tick++) {
+            tower.tick();
+        }
+        tower.setSequentialTick();
+
+        long passengers = 0;
+        long freight = 0;
+        double fuel = 0;
+        double weight = 0;
+        long occupancy = 0;
+        for (Aircraft aircraft : tower.getAircraft()) {
+            passengers += aircraft.getNumPassengers();
+            freight += aircraft.getFreightAmount();
+            fuel += aircraft.getFuelAmount();
+            weight += aircraft.getTotalWeight();
+            occupancy += aircraft.calculateOccupancyLevel();
+        }
+        AirportStatistics statistics = tower.getStatistics();
+        assertEquals(passengers, statistics.getTotalPassengers());
+        assertEquals(freight, statistics.getTotalFreight());
+        assertEquals(fuel, statistics.getTotalFuel(), 1e-3);
+        assertEquals(weight, statistics.getTotalWeight(), 1e-3);
+        assertEquals((double) occupancy / tower.getAircraft().size(),
+                statistics.getAverageOccupancy(AircraftType.AIRPLANE), 1e-9);
+        assertEquals(0,
+                statistics.getAverageOccupancy(AircraftType.HELICOPTER), 0);
+    }
+
+    @Test
+    public void takeoffReleasesGateTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        control1.addTerminal(terminalA1);
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(wait);
+        tasks.add(takeoff);
+        tasks.add(away);
+        tasks.add(new Task(TaskType.LAND));
+        Aircraft departing = new PassengerAircraft("DEP1",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                27200, 0);
+        control1.addAircraft(departing);
+        assertSame(gateA, control1.findGateOfAircraft(departing));
+
+        departing.getTaskList().moveToNextTask();
+        assertFalse(gateA.isOccupied());
+        assertNull(control1.findGateOfAircraft(departing));
+        assertSame(departing, control1.getDepartureQueue().peekAircraft());
+        control1.addAircraft(planeP1);
+        assertSame(gateA, control1.findGateOfAircraft(planeP1));
+    }
+
+    @Test
+    public void runwayRateTest() throws NoSuitableGateException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(takeoff);
+        tasks.add(away);
+        tasks.add(new Task(TaskType.LAND));
+        tasks.add(wait);
+        List<Aircraft> departing = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Aircraft aircraft = new PassengerAircraft("DEP" + i,
+                    AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                    27200, 0);
+            control1.addAircraft(aircraft);
+            departing.add(aircraft);
+        }
+        assertEquals(departing,
+                control1.getDepartureQueue().getAircraftInOrder());
+
+        control1.tick();
+        assertEquals(5, control1.getDepartureQueue().size());
+
+        control1.setRunwayRate(2);
+        control1.tick(2);
+        assertEquals(1, control1.getDepartureQueue().size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(TaskType.AWAY, departing.get(i).getTaskList()
+                    .getCurrentTask().getType());
+        }
+        //The first two took off a tick earlier, so have burnt more fuel
+        assertEquals(27200 * 0.9, departing.get(0).getFuelAmount(), 1e-9);
+        assertEquals(27200, departing.get(2).getFuelAmount(), 1e-9);
 
+        control1.tick(3);
+        assertTrue(control1.getDepartureQueue().isEmpty());
+        assertEquals(27200 * 0.6, departing.get(0).getFuelAmount(), 1e-6);
+        assertEquals(27200 * 0.8, departing.get(4).getFuelAmount(), 1e-6);
     }
 
     @Test
-    public void findGateOfAircraftTest() {
+    public void loadSchedulingTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        terminalA1.addGate(gateB);
+        control1.addTerminal(terminalA1);
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(load60);
+        tasks.add(takeoff);
+        tasks.add(away);
+        tasks.add(new Task(TaskType.LAND));
+        TaskList freightTasks = new TaskList(tasks);
+        Aircraft freighter = new FreightAircraft("CARGO1",
+                AircraftCharacteristics.BOEING_747_8F, freightTasks, 0, 0);
+        control1.addAircraft(freighter);
+        control1.addAircraft(planeP1);
+
+        control1.setLoadScheduling(true);
+        control1.tick(2);
+        assertEquals(TaskType.LOAD, freightTasks.getCurrentTask().getType());
+        control1.tick();
+        assertEquals(TaskType.TAKEOFF,
+                freightTasks.getCurrentTask().getType());
+        assertFalse(gateA.isOccupied());
+        assertEquals(TaskType.WAIT,
+                planeP1.getTaskList().getCurrentTask().getType());
 
+        //planeP1 loads for a single tick, then waits at its gate again
+        planeP1.getTaskList().moveToNextTask();
+        control1.setRunwayRate(1);
+        control1.tick(1000);
+        assertEquals(TaskType.AWAY, freightTasks.getCurrentTask().getType());
+        assertEquals(TaskType.WAIT,
+                planeP1.getTaskList().getCurrentTask().getType());
+        assertTrue(gateB.isOccupied());
+        assertEquals(0, freighter.getFuelAmount(), 0);
+    }
+
+    @Test
+    public void tickFollowsTaskChangesTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        control1.addTerminal(terminalA1);
+        PassengerAircraft plane = new PassengerAircraft("IDLE1",
+                AircraftCharacteristics.AIRBUS_A320, planeP1.getTaskList(),
+                0, 0);
+        control1.addAircraft(plane);
+
+        control1.tick();
+        assertEquals(0, plane.getFuelAmount(), 0);
+
+        plane.getTaskList().moveToNextTask();
+        control1.tick();
+        assertEquals(27200, plane.getFuelAmount(), 0);
+        assertEquals(150, plane.getNumPassengers());
+
+        plane.getTaskList().moveToNextTask();
+        control1.tick();
+        assertEquals(150, plane.getNumPassengers());
+    }
+
+    @Test
+    public void findGateOfAircraftTest() throws NoSpaceException,
+            NoSuitableGateException {
+        gateA.parkAircraft(planeF1);
+        terminalA1.addGate(gateA);
+        terminalA1.addGate(gateB);
+        control1.addTerminal(terminalA1);
+        assertSame(gateA, control1.findGateOfAircraft(planeF1));
+        assertNull(control1.findGateOfAircraft(planeP1));
+
+        control1.addAircraft(planeP1);
+        assertSame(gateB, control1.findGateOfAircraft(planeP1));
+
+        gateB.aircraftLeaves();
+        assertNull(control1.findGateOfAircraft(planeP1));
+    }
+
+    @Test
+    public void concurrentAddAircraftTest() throws Exception {
+        int numThreads = 8;
+        int perThread = 100;
+        int numGates = 100 * 6;
+        for (int t = 0; t < 100; t++) {
+            Terminal terminal = new AirplaneTerminal(t);
+            for (int g = 0; g < 6; g++) {
+                terminal.addGate(new Gate(g));
+            }
+            control1.addTerminal(terminal);
+        }
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(wait);
+        tasks.add(away);
+
+        List<Aircraft> parked = Collections.synchronizedList(
+                new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    Aircraft plane = new PassengerAircraft("T" + thread + "-"
+                            + i, AircraftCharacteristics.AIRBUS_A320,
+                            new TaskList(tasks), 0, 0);
+                    try {
+                        control1.addAircraft(plane);
+                        parked.add(plane);
+                    } catch (NoSuitableGateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(numGates, parked.size());
+        assertEquals(numThreads * perThread - numGates, rejected.get());
+        assertEquals(numThreads * perThread, control1.getAircraft().size());
+        Set<Gate> gates = new HashSet<>();
+        for (Aircraft plane : parked) {
+            Gate gate = control1.findGateOfAircraft(plane);
+            assertSame(plane, gate.getAircraftAtGate());
+            gates.add(gate);
+        }
+        assertEquals(numGates, gates.size());
+        assertEquals(numThreads * perThread,
+                control1.getStatistics().getNumAircraft(AircraftType.AIRPLANE));
+    }
+
+    @Test
+    public void concurrentTaskGroupsTest() throws Exception {
+        int numThreads = 8;
+        int perThread = 500;
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(away);
+        tasks.add(new Task(TaskType.LAND));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    Aircraft plane = new PassengerAircraft("G" + thread + "-"
+                            + i, AircraftCharacteristics.AIRBUS_A320,
+                            new TaskList(tasks), 27200, 0);
+                    try {
+                        control1.addAircraft(plane);
+                    } catch (NoSuitableGateException e) {
+                        return;
+                    }
+                    //Leave and rejoin the AWAY group while others are added
+                    if (i % 2 == 0) {
+                        plane.getTaskList().moveToNextTask();
+                        plane.getTaskList().moveToNextTask();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        control1.tick();
+        assertEquals(numThreads * perThread, control1.getNumAircraft());
+        //Every aircraft is ticked exactly once
+        for (Aircraft plane : control1.getAircraft()) {
+            assertEquals(24480, plane.getFuelAmount(), 0.001);
+        }
+    }
+
+    @Test
+    public void findAircraftByCallsignTest() throws NoSpaceException,
+            NoSuitableGateException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(away);
+        String[] callsigns = {"QFA12", "VOZ7", "QFA1", "QF9", "QFA120"};
+        for (String callsign : callsigns) {
+            control1.addAircraft(new PassengerAircraft(callsign,
+                    AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                    0, 0));
+        }
+        terminalA1.addGate(gateA);
+        control1.addTerminal(terminalA1);
+        control1.addAircraft(planeP1);
+
+        assertSame(planeP1, control1.findAircraft(planeP1.getCallsign()));
+        assertEquals("VOZ7", control1.findAircraft("VOZ7").getCallsign());
+        assertNull(control1.findAircraft("QFA"));
+        assertNull(control1.findAircraft(null));
+
+        List<String> found = new ArrayList<>();
+        for (Aircraft aircraft : control1.findAircraftByPrefix("QFA")) {
+            found.add(aircraft.getCallsign());
+        }
+        List<String> expected = new ArrayList<>();
+        expected.add("QFA1");
+        expected.add("QFA12");
+        expected.add("QFA120");
+        assertEquals(expected, found);
+        assertEquals(4, control1.findAircraftByPrefix("QF").size());
+        assertTrue(control1.findAircraftByPrefix("ZZ").isEmpty());
+        assertEquals(6, control1.findAircraftByPrefix("").size());
+    }
+
+    @Test
+    public void emergencyRegistryTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        terminalA1.addGate(gateB);
+        terminalA2.declareEmergency();
+        control1.addTerminal(terminalA1);
+        control1.addTerminal(terminalA2);
+        planeF1.declareEmergency();
+        control1.addAircraft(planeP1);
+        control1.addAircraft(planeF1);
+        assertTrue(control1.hasActiveEmergency());
+        assertEquals(2, control1.getNumEmergencies());
+
+        terminalA2.clearEmergency();
+        terminalA1.declareEmergency();
+        planeP1.declareEmergency();
+        planeP1.declareEmergency();
+        List<Aircraft> expected = new ArrayList<>();
+        expected.add(planeP1);
+        expected.add(planeF1);
+        assertEquals(expected, control1.getAircraftInEmergency());
+        List<Terminal> terminals = new ArrayList<>();
+        terminals.add(terminalA1);
+        assertEquals(terminals, control1.getTerminalsInEmergency());
+        assertEquals(3, control1.getNumEmergencies());
+
+        planeP1.clearEmergency();
+        planeF1.clearEmergency();
+        terminalA1.clearEmergency();
+        assertFalse(control1.hasActiveEmergency());
+        assertTrue(control1.getAircraftInEmergency().isEmpty());
+        assertTrue(control1.getTerminalsInEmergency().isEmpty());
+    }
+
+    @Test
+    public void readOnlyViewsTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA1.addGate(gateA);
+        control1.addTerminal(terminalA1);
+        List<Terminal> terminalsView = control1.getTerminalsView();
+        List<Aircraft> aircraftView = control1.getAircraftView();
+        List<Gate> gatesView = terminalA1.getGatesView();
+        assertEquals(0, aircraftView.size());
+
+        control1.addTerminal(terminalH1);
+        control1.addAircraft(planeP1);
+        terminalA1.addGate(gateB);
+        assertEquals(2, terminalsView.size());
+        assertSame(terminalH1, control1.getTerminal(1));
+        assertEquals(1, control1.getNumAircraft());
+        assertSame(planeP1, aircraftView.get(0));
+        assertSame(planeP1, control1.getAircraft(0));
+        assertEquals(2, terminalA1.getNumGates());
+        assertSame(gateB, gatesView.get(1));
+        assertSame(gateB, terminalA1.getGate(1));
+
+        List<Object> visited = new ArrayList<>();
+        control1.forEachTerminal(visited::add);
+        control1.forEachAircraft(visited::add);
+        terminalA1.forEachGate(visited::add);
+        assertEquals(5, visited.size());
+
+        try {
+            aircraftView.add(planeF1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+        try {
+            gatesView.clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+        try {
+            control1.getAircraft(1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            //expected
+        }
+        //Copies are still independent of the tower
+        control1.getTerminals().clear();
+        assertEquals(2, control1.getNumTerminals());
     }
-}
\ No newline at end of file
+}
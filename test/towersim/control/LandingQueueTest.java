@@ -0,0 +1,150 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSuitableGateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LandingQueueTest {
+
+    private LandingQueue queue;
+    private List<Task> landing;
+
+    @Before
+    public void setUp() {
+        queue = new LandingQueue();
+        landing = new ArrayList<>();
+        landing.add(new Task(TaskType.LAND));
+        landing.add(new Task(TaskType.WAIT));
+        landing.add(new Task(TaskType.TAKEOFF));
+        landing.add(new Task(TaskType.AWAY));
+    }
+
+    private Aircraft aircraft(String callsign, double fuel) {
+        return new PassengerAircraft(callsign,
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(landing),
+                fuel, 0);
+    }
+
+    @Test
+    public void emptyQueueTest() {
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peekAircraft());
+        assertNull(queue.removeAircraft());
+    }
+
+    @Test
+    public void orderTest() {
+        Aircraft full = aircraft("FULL", 27200);
+        Aircraft low = aircraft("LOW", 2720);
+        Aircraft lowLater = aircraft("LOW2", 2720);
+        Aircraft emergency = aircraft("EMERG", 27200);
+        emergency.declareEmergency();
+
+        queue.addAircraft(full);
+        queue.addAircraft(low);
+        queue.addAircraft(lowLater);
+        queue.addAircraft(emergency);
+        queue.addAircraft(low);
+        assertEquals(4, queue.size());
+
+        List<Aircraft> expected = new ArrayList<>();
+        expected.add(emergency);
+        expected.add(low);
+        expected.add(lowLater);
+        expected.add(full);
+        assertEquals(expected, queue.getAircraftInOrder());
+        for (Aircraft aircraft : expected) {
+            assertSame(aircraft, queue.removeAircraft());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void updateAircraftTest() {
+        Aircraft first = aircraft("A", 1000);
+        Aircraft second = aircraft("B", 2000);
+        queue.addAircraft(first);
+        queue.addAircraft(second);
+        assertSame(first, queue.peekAircraft());
+
+        second.declareEmergency();
+        queue.updateAircraft(second);
+        assertSame(second, queue.peekAircraft());
+
+        second.clearEmergency();
+        queue.updateAircraft(second);
+        assertSame(first, queue.peekAircraft());
+    }
+
+    @Test
+    public void matchesSortedOrderTest() {
+        Random random = new Random(2002);
+        List<Aircraft> queued = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Aircraft aircraft = aircraft("R" + i, random.nextInt(27201));
+            if (random.nextInt(10) == 0) {
+                aircraft.declareEmergency();
+            }
+            queue.addAircraft(aircraft);
+            queued.add(aircraft);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.removeAircraft(queued.remove(
+                    random.nextInt(queued.size()))));
+        }
+
+        List<Aircraft> expected = queue.getAircraftInOrder();
+        assertEquals(queued.size(), expected.size());
+        for (int i = 1; i < expected.size(); i++) {
+            Aircraft before = expected.get(i - 1);
+            Aircraft after = expected.get(i);
+            if (before.hasEmergency() == after.hasEmergency()) {
+                assertTrue(before.getFuelPercentRemaining()
+                        <= after.getFuelPercentRemaining());
+            } else {
+                assertTrue(before.hasEmergency());
+            }
+        }
+        for (Aircraft aircraft : expected) {
+            assertSame(aircraft, queue.removeAircraft());
+        }
+    }
+
+    @Test
+    public void controlTowerQueuesLandingAircraftTest()
+            throws NoSuitableGateException {
+        ControlTower tower = new ControlTower();
+        Aircraft first = aircraft("A", 1000);
+        Aircraft second = aircraft("B", 2000);
+        tower.addAircraft(first);
+        tower.addAircraft(second);
+
+        LandingQueue towerQueue = tower.getLandingQueue();
+        assertSame(first, towerQueue.peekAircraft());
+        second.declareEmergency();
+        assertSame(second, towerQueue.peekAircraft());
+
+        second.getTaskList().moveToNextTask();
+        assertFalse(towerQueue.containsAircraft(second));
+        assertSame(first, towerQueue.peekAircraft());
+
+        first.getTaskList().moveToNextTask();
+        first.getTaskList().moveToNextTask();
+        first.getTaskList().moveToNextTask();
+        assertTrue(towerQueue.isEmpty());
+        first.getTaskList().moveToNextTask();
+        assertSame(first, towerQueue.peekAircraft());
+    }
+}
@@ -0,0 +1,146 @@
+package towersim.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TerminalActorTest {
+
+    private static final int NUM_TERMINALS = 8;
+
+    private ControlTower tower;
+    private List<Terminal> terminals;
+    private List<Task> tasks;
+
+    @Before
+    public void setUp() throws NoSpaceException {
+        tower = new ControlTower();
+        terminals = new ArrayList<>();
+        for (int t = 0; t < NUM_TERMINALS; t++) {
+            Terminal terminal = new AirplaneTerminal(t);
+            for (int g = 0; g < Terminal.MAX_NUM_GATES; g++) {
+                terminal.addGate(new Gate(g));
+            }
+            tower.addTerminal(terminal);
+            terminals.add(terminal);
+        }
+        tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 50));
+    }
+
+    @After
+    public void tearDown() {
+        tower.setDirectTerminals();
+    }
+
+    private Aircraft aircraft(String callsign) {
+        return new PassengerAircraft(callsign,
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                0, 0);
+    }
+
+    @Test
+    public void directActorRunsInlineTest() {
+        TerminalActor actor = tower.getTerminalActor(terminals.get(0));
+        assertSame(terminals.get(0), actor.getTerminal());
+        CompletableFuture<Gate> parked = actor.parkAircraft(aircraft("A"));
+        assertTrue(parked.isDone());
+        assertTrue(parked.join().isOccupied());
+        assertNull(tower.getTerminalActor(new AirplaneTerminal(99)));
+    }
+
+    @Test
+    public void parallelParkingFillsEveryGateTest() throws Exception {
+        tower.setTerminalActors(4);
+        int numGates = NUM_TERMINALS * Terminal.MAX_NUM_GATES;
+        List<Aircraft> aircraft = new ArrayList<>();
+        List<CompletableFuture<Gate>> parked = new ArrayList<>();
+        for (int i = 0; i < numGates; i++) {
+            aircraft.add(aircraft("P" + i));
+            parked.add(tower.parkAircraftAsync(aircraft.get(i)));
+        }
+        Set<Gate> gates = new HashSet<>();
+        for (int i = 0; i < numGates; i++) {
+            Gate gate = parked.get(i).get();
+            assertSame(aircraft.get(i), gate.getAircraftAtGate());
+            assertSame(gate, tower.findGateOfAircraft(aircraft.get(i)));
+            gates.add(gate);
+        }
+        assertEquals(numGates, gates.size());
+
+        try {
+            tower.parkAircraftAsync(aircraft("EXTRA")).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NoSuitableGateException);
+        }
+        for (Terminal terminal : terminals) {
+            assertEquals(100, (int) tower.getTerminalActor(terminal)
+                    .calculateOccupancyLevel().get());
+        }
+
+        tower.aircraftLeavesAsync(aircraft.get(0)).get();
+        assertNull(tower.findGateOfAircraft(aircraft.get(0)));
+        Aircraft late = aircraft("LATE");
+        tower.addAircraft(late);
+        assertNotNull(tower.findGateOfAircraft(late));
+    }
+
+    @Test
+    public void addAircraftFromActorTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            tower.setTerminalActors(executor);
+            Aircraft inner = aircraft("INNER");
+            //Waiting for the park from the only executor thread would hang
+            CompletableFuture<Void> added = tower.getTerminalActor(
+                    terminals.get(1)).send(() -> {
+                        tower.addAircraft(inner);
+                        return null;
+                    });
+            added.get(5, TimeUnit.SECONDS);
+            assertNotNull(tower.findGateOfAircraft(inner));
+
+            Aircraft outer = aircraft("OUTER");
+            tower.addAircraftAsync(outer).get(5, TimeUnit.SECONDS);
+            assertNotNull(tower.findGateOfAircraft(outer));
+        } finally {
+            tower.setDirectTerminals();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void emergencyTest() throws Exception {
+        tower.setTerminalActors(2);
+        TerminalActor actor = tower.getTerminalActor(terminals.get(3));
+        actor.declareEmergency().get();
+        assertTrue(terminals.get(3).hasEmergency());
+        actor.clearEmergency().get();
+        assertFalse(terminals.get(3).hasEmergency());
+    }
+}
@@ -0,0 +1,107 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+
+    private TimingWheel wheel;
+    private long now;
+    private List<Long> fired;
+
+    @Before
+    public void setUp() {
+        wheel = new TimingWheel();
+        now = 0;
+        fired = new ArrayList<>();
+    }
+
+    private void schedule(long delay) {
+        long deadline = now + delay;
+        wheel.schedule(delay, () -> {
+            assertEquals(deadline, now);
+            fired.add(deadline);
+        });
+    }
+
+    private void advance() {
+        now++;
+        wheel.advance();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroDelayTest() {
+        wheel.schedule(0, () -> { });
+    }
+
+    @Test
+    public void firesOnDeadlineTest() {
+        schedule(1);
+        schedule(3);
+        schedule(64);
+        schedule(65);
+        advance();
+        assertEquals(1, fired.size());
+        while (!wheel.isEmpty()) {
+            advance();
+        }
+        assertEquals(4, fired.size());
+        assertEquals(65, now);
+    }
+
+    @Test
+    public void randomDelaysTest() {
+        Random random = new Random(15);
+        int scheduled = 0;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 5; i++) {
+                long delay = 1 + (random.nextBoolean()
+                        ? random.nextInt(100)
+                        : random.nextInt(300000));
+                schedule(delay);
+                scheduled++;
+            }
+            int steps = random.nextInt(5000);
+            for (int i = 0; i < steps; i++) {
+                advance();
+            }
+        }
+        while (!wheel.isEmpty()) {
+            advance();
+        }
+        assertEquals(scheduled, fired.size());
+    }
+
+    @Test
+    public void beyondHighestWheelTest() {
+        schedule(1L << 24);
+        schedule((1L << 25) + 7);
+        while (!wheel.isEmpty()) {
+            advance();
+        }
+        assertEquals(2, fired.size());
+    }
+
+    @Test
+    public void skipTest() {
+        wheel.skip(1000);
+        now += 1000;
+        schedule(5);
+        for (int i = 0; i < 5; i++) {
+            advance();
+        }
+        assertEquals(1, fired.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void skipWhileWaitingTest() {
+        schedule(5);
+        wheel.skip(1);
+    }
+}
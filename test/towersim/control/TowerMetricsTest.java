@@ -0,0 +1,95 @@
+package towersim.control;
+
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+import towersim.util.NoSuitableGateException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerMetricsTest {
+
+    @Test
+    public void bucketBoundsTest() {
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123456789,
+                Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket < LatencyHistogram.NUM_BUCKETS);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertTrue(value <= highest);
+            //Within an eighth of the value
+            assertTrue(highest - value <= value / 8);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(bucket - 1)
+                        < value);
+            }
+        }
+    }
+
+    @Test
+    public void percentilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getPercentileNanos(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1001, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMaxNanos());
+        assertEquals(500500000, snapshot.getTotalNanos());
+
+        long median = snapshot.getPercentileNanos(50);
+        assertTrue(median >= 500000 && median <= 500000 * 9 / 8);
+        long p99 = snapshot.getPercentileNanos(99);
+        assertTrue(p99 >= 990000 && p99 <= 1000000);
+        assertEquals(0, snapshot.getPercentileNanos(0));
+        assertEquals(1000000, snapshot.getPercentileNanos(100));
+    }
+
+    @Test
+    public void controlTowerRecordsTest() throws NoSpaceException {
+        ControlTower tower = new ControlTower();
+        Terminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        tower.addTerminal(terminal);
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.WAIT));
+
+        int failures = 0;
+        for (int i = 0; i < 3; i++) {
+            Aircraft aircraft = new PassengerAircraft("M" + i,
+                    AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                    0, 0);
+            try {
+                tower.addAircraft(aircraft);
+            } catch (NoSuitableGateException e) {
+                failures++;
+            }
+        }
+        tower.tick();
+        tower.tick(5);
+
+        MetricsSnapshot metrics = tower.getMetrics().snapshot();
+        assertEquals(2, failures);
+        assertEquals(3, metrics.getAddAircraftLatency().getCount());
+        assertEquals(3, metrics.getFindUnoccupiedGateLatency().getCount());
+        assertEquals(1, metrics.getParkAircraftLatency().getCount());
+        assertEquals(2, metrics.getGateAllocationFailures());
+        assertEquals(0, metrics.getGateConflicts());
+        assertEquals(2, metrics.getTickLatency().getCount());
+        assertTrue(metrics.toString().contains("gateAllocationFailures: 2"));
+    }
+}
@@ -0,0 +1,178 @@
+package towersim.control;
+
+import org.junit.Before;
+import org.junit.Test;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+import towersim.util.NoSuitableGateException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerSnapshotTest {
+
+    private ControlTower tower;
+    private PassengerAircraft planeP1;
+    private FreightAircraft heliF1;
+    private PassengerAircraft planeP2;
+
+    @Before
+    public void setUp() throws Exception {
+        //Populate task list with tasks
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 35));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+
+        Terminal terminalA = new AirplaneTerminal(1);
+        terminalA.addGate(new Gate(1));
+        terminalA.addGate(new Gate(2));
+        Terminal terminalH = new HelicopterTerminal(2);
+        terminalH.addGate(new Gate(3));
+        terminalH.declareEmergency();
+
+        planeP1 = new PassengerAircraft("QFA12",
+                AircraftCharacteristics.BOEING_787, new TaskList(tasks),
+                50000, 120);
+        heliF1 = new FreightAircraft("HELI1",
+                AircraftCharacteristics.SIKORSKY_SKYCRANE, new TaskList(tasks),
+                2000, 1500);
+        planeP2 = new PassengerAircraft("VOZ3",
+                AircraftCharacteristics.FOKKER_100, new TaskList(tasks),
+                1000, 0);
+        planeP2.getTaskList().moveToNextTask();
+        planeP2.getTaskList().moveToNextTask();
+        planeP2.getTaskList().moveToNextTask();
+        planeP2.declareEmergency();
+
+        tower = new ControlTower();
+        tower.addTerminal(terminalA);
+        tower.addTerminal(terminalH);
+        tower.addAircraft(planeP1);
+        tower.addAircraft(heliF1);
+        tower.addAircraft(planeP2);
+        planeP1.getTaskList().moveToNextTask();
+        tower.tick();
+    }
+
+    private ControlTower roundTrip(ControlTower original) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        original.snapshot(Channels.newChannel(out));
+        return ControlTower.restore(Channels.newChannel(
+                new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void restoreMatchesOriginalTest() throws IOException,
+            NoSuitableGateException {
+        ControlTower restored = roundTrip(tower);
+
+        List<Terminal> expectedTerminals = tower.getTerminals();
+        List<Terminal> actualTerminals = restored.getTerminals();
+        assertEquals(expectedTerminals.size(), actualTerminals.size());
+        for (int i = 0; i < expectedTerminals.size(); i++) {
+            assertEquals(expectedTerminals.get(i).toString(),
+                    actualTerminals.get(i).toString());
+            assertEquals(expectedTerminals.get(i).getGates().toString(),
+                    actualTerminals.get(i).getGates().toString());
+        }
+
+        List<Aircraft> expected = tower.getAircraft();
+        List<Aircraft> actual = restored.getAircraft();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+            assertEquals(expected.get(i).getTaskList().toString(),
+                    actual.get(i).getTaskList().toString());
+            assertEquals(expected.get(i).getFuelAmount(),
+                    actual.get(i).getFuelAmount(), 0);
+            assertEquals(expected.get(i).getTotalWeight(),
+                    actual.get(i).getTotalWeight(), 0);
+        }
+
+        assertEquals(1, restored.findGateOfAircraft(actual.get(0))
+                .getGateNumber());
+        assertEquals(3, restored.findGateOfAircraft(actual.get(1))
+                .getGateNumber());
+        assertNull(restored.findGateOfAircraft(actual.get(2)));
+        assertEquals(2, restored.findUnoccupiedGate(actual.get(2))
+                .getGateNumber());
+    }
+
+    @Test
+    public void restoreDuplicateAircraftTest() throws IOException,
+            NoSuitableGateException {
+        tower.addAircraft(planeP2);
+        tower.registerAircraft(planeP1);
+        ControlTower restored = roundTrip(tower);
+
+        List<Aircraft> actual = restored.getAircraft();
+        assertEquals(5, actual.size());
+        assertSame(actual.get(2), actual.get(3));
+        assertSame(actual.get(0), actual.get(4));
+        assertEquals(1, restored.findGateOfAircraft(actual.get(4))
+                .getGateNumber());
+
+        restored.tick();
+        tower.tick();
+        assertEquals(planeP2.getFuelAmount(), actual.get(3).getFuelAmount(),
+                0);
+        assertEquals(planeP1.getTotalWeight(), actual.get(4).getTotalWeight(),
+                0);
+    }
+
+    @Test
+    public void restoreEmptyTowerTest() throws IOException {
+        ControlTower restored = roundTrip(new ControlTower());
+        assertTrue(restored.getTerminals().isEmpty());
+        assertTrue(restored.getAircraft().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void restoreTruncatedTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tower.snapshot(Channels.newChannel(out));
+        byte[] bytes = out.toByteArray();
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        ControlTower.restore(Channels.newChannel(
+                new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void restoreCorruptTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tower.snapshot(Channels.newChannel(out));
+        byte[] bytes = out.toByteArray();
+        //Model ordinal, callsign length and task type of the first aircraft
+        int[][] corruptions = {{12, 0x7F}, {26, 0xFF}, {37, 0x7F}};
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = bytes.clone();
+            corrupt[corruption[0]] = (byte) corruption[1];
+            try {
+                ControlTower.restore(Channels.newChannel(
+                        new ByteArrayInputStream(corrupt)));
+                fail();
+            } catch (IOException e) {
+                //corrupt snapshots are reported as IOExceptions
+            }
+        }
+    }
+}
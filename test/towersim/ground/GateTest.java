@@ -15,6 +15,8 @@ import towersim.util.NoSpaceException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -161,4 +163,39 @@ public class GateTest {
                 gate1.toString());
     }
 
+
+    @Test
+    public void concurrentParkAircraftTest() throws InterruptedException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(wait);
+        int numThreads = 8;
+        Aircraft[] planes = new Aircraft[numThreads];
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            planes[i] = new PassengerAircraft("RACE" + i,
+                    AircraftCharacteristics.AIRBUS_A320,
+                    new TaskList(tasks), 0, 0);
+            Aircraft plane = planes[i];
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    gate1.parkAircraft(plane);
+                    winners.incrementAndGet();
+                } catch (NoSpaceException | InterruptedException e) {
+                    //Lost the race
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, winners.get());
+        assertTrue(gate1.isOccupied());
+    }
 }
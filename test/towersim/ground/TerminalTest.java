@@ -147,6 +147,24 @@ public class TerminalTest {
         }
     }
 
+    @Test
+    public void findUnoccupiedGateTracksParkingTest() throws NoSpaceException,
+            NoSuitableGateException {
+        terminalA.addGate(gateA);
+        terminalA.addGate(gateB);
+        terminalA.addGate(gateC);
+        assertSame(gateA, terminalA.findUnoccupiedGate());
+
+        gateA.parkAircraft(aircraftA);
+        assertSame(gateB, terminalA.findUnoccupiedGate());
+
+        gateB.parkAircraft(helicopterA);
+        assertSame(gateC, terminalA.findUnoccupiedGate());
+
+        gateA.aircraftLeaves();
+        assertSame(gateA, terminalA.findUnoccupiedGate());
+    }
+
     @Test
     public void calculateOccupancyLevel() throws NoSpaceException {
         gateA.parkAircraft(aircraftA);
@@ -158,6 +176,24 @@ public class TerminalTest {
 
     }
 
+    @Test
+    public void calculateOccupancyLevelTracksParkingTest()
+            throws NoSpaceException {
+        assertEquals(0, terminalA.calculateOccupancyLevel());
+        terminalA.addGate(gateA);
+        terminalA.addGate(gateB);
+        assertEquals(0, terminalA.calculateOccupancyLevel());
+
+        gateA.parkAircraft(aircraftA);
+        assertEquals(50, terminalA.calculateOccupancyLevel());
+        gateB.parkAircraft(helicopterA);
+        assertEquals(100, terminalA.calculateOccupancyLevel());
+
+        gateA.aircraftLeaves();
+        gateA.aircraftLeaves();
+        assertEquals(50, terminalA.calculateOccupancyLevel());
+    }
+
     @Test
     public void testToString() {
         String expected = "AirplaneTerminal 1, 0 gates";
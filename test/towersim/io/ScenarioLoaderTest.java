@@ -0,0 +1,107 @@
+package towersim.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.FreightAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskType;
+import towersim.util.NoSpaceException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScenarioLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path write(String contents) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void parsesAircraftTest() throws IOException {
+        Path path = write("# callsign:model:fuel:load:tasks\n"
+                + "QFA481:AIRBUS_A320:27200:150:WAIT,LOAD@60,TAKEOFF\r\n"
+                + "\n"
+                + "CARGO7:BOEING_747_8F:1234.25:900:AWAY,LAND,LOAD@100");
+        try (ScenarioLoader loader = new ScenarioLoader(path)) {
+            Aircraft first = loader.next();
+            assertEquals("QFA481", first.getCallsign());
+            assertEquals(AircraftCharacteristics.AIRBUS_A320,
+                    first.getCharacteristics());
+            assertEquals(27200, first.getFuelAmount(), 0);
+            assertEquals(150, first.getNumPassengers());
+            List<Task> tasks = first.getTaskList().getTasks();
+            assertEquals(3, tasks.size());
+            assertEquals(TaskType.LOAD, tasks.get(1).getType());
+            assertEquals(60, tasks.get(1).getLoadPercent());
+
+            Aircraft second = loader.next();
+            assertTrue(second instanceof FreightAircraft);
+            assertEquals(1234.25, second.getFuelAmount(), 0);
+            assertEquals(900, second.getFreightAmount());
+            assertEquals(TaskType.AWAY,
+                    second.getTaskList().getCurrentTask().getType());
+            assertNull(loader.next());
+        }
+    }
+
+    @Test
+    public void malformedLineTest() throws IOException {
+        Path path = write("A:AIRBUS_A320:0:0:WAIT\nB:CONCORDE:0:0:WAIT\n");
+        try (ScenarioLoader loader = new ScenarioLoader(path)) {
+            assertNotNull(loader.next());
+            loader.next();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("line 2"));
+        }
+    }
+
+    @Test
+    public void loadsLargeFileInBatchesTest() throws IOException,
+            NoSpaceException {
+        //More than one buffer's worth, so lines straddle buffer refills
+        int numAircraft = 40000;
+        Path path = folder.newFile().toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < numAircraft; i++) {
+                writer.write("PAX" + i + ":FOKKER_100:" + (i % 13365)
+                        + ".5:" + (i % 98) + ":AWAY,LAND,WAIT,LOAD@"
+                        + (i % 101) + ",TAKEOFF\n");
+            }
+        }
+        assertTrue(Files.size(path) > (1 << 20));
+
+        ControlTower tower = new ControlTower();
+        Terminal terminal = new AirplaneTerminal(1);
+        terminal.addGate(new Gate(1));
+        tower.addTerminal(terminal);
+        try (ScenarioLoader loader = new ScenarioLoader(path)) {
+            assertEquals(numAircraft, loader.addAll(tower, 100));
+        }
+        List<Aircraft> aircraft = tower.getAircraft();
+        assertEquals(numAircraft, aircraft.size());
+        Aircraft last = tower.findAircraft("PAX" + (numAircraft - 1));
+        assertEquals((numAircraft - 1) % 13365 + 0.5, last.getFuelAmount(), 0);
+        assertEquals((numAircraft - 1) % 98, last.getNumPassengers());
+        assertSame(aircraft.get(0).getTaskList().getTasks().get(2),
+                aircraft.get(1).getTaskList().getTasks().get(2));
+    }
+}
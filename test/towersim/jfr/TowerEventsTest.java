@@ -0,0 +1,102 @@
+package towersim.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TowerEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void towerEmitsEventsTest() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        tasks.add(new Task(TaskType.AWAY));
+
+        Path file = folder.getRoot().toPath().resolve("tower.jfr");
+        assertFalse(TowerEvents.isGateAllocationEnabled());
+        try (Recording recording = new Recording()) {
+            recording.enable(TickEvent.class);
+            recording.enable(GateAllocationEvent.class);
+            recording.enable(TaskTransitionEvent.class);
+            recording.enable(EmergencyEvent.class);
+            recording.start();
+            assertTrue(TowerEvents.isGateAllocationEnabled());
+
+            ControlTower tower = new ControlTower();
+            Terminal terminal = new AirplaneTerminal(7);
+            terminal.addGate(new Gate(3));
+            tower.addTerminal(terminal);
+            Aircraft aircraft = new PassengerAircraft("JFR1",
+                    AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                    0, 0);
+            tower.addAircraft(aircraft);
+            aircraft.declareEmergency();
+            terminal.declareEmergency();
+            aircraft.getTaskList().moveToNextTask();
+            tower.tick();
+            tower.tick(4);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        int ticks = 0;
+        int allocations = 0;
+        int transitions = 0;
+        int emergencies = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "towersim.Tick":
+                    ticks++;
+                    assertEquals(1, event.getInt("fleetSize"));
+                    break;
+                case "towersim.GateAllocation":
+                    allocations++;
+                    assertEquals("JFR1", event.getString("callsign"));
+                    assertEquals(7, event.getInt("terminal"));
+                    assertEquals(3, event.getInt("gate"));
+                    assertTrue(event.getBoolean("success"));
+                    assertEquals(1, event.getInt("scanLength"));
+                    break;
+                case "towersim.TaskTransition":
+                    transitions++;
+                    assertEquals("WAIT", event.getString("previousTask"));
+                    assertEquals("TAKEOFF", event.getString("currentTask"));
+                    break;
+                case "towersim.Emergency":
+                    emergencies++;
+                    assertTrue(event.getBoolean("declared"));
+                    break;
+                default:
+                    break;
+            }
+        }
+        assertEquals(2, ticks);
+        assertEquals(1, allocations);
+        assertEquals(1, transitions);
+        assertEquals(2, emergencies);
+    }
+}
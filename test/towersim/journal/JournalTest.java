@@ -0,0 +1,175 @@
+package towersim.journal;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import towersim.aircraft.Aircraft;
+import towersim.aircraft.AircraftCharacteristics;
+import towersim.aircraft.AircraftType;
+import towersim.aircraft.FreightAircraft;
+import towersim.aircraft.PassengerAircraft;
+import towersim.control.ControlTower;
+import towersim.ground.AirplaneTerminal;
+import towersim.ground.Gate;
+import towersim.ground.HelicopterTerminal;
+import towersim.ground.Terminal;
+import towersim.tasks.Task;
+import towersim.tasks.TaskList;
+import towersim.tasks.TaskType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private List<Task> tasks;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath().resolve("journal");
+
+        //Populate task list with tasks
+        tasks = new ArrayList<>();
+        tasks.add(new Task(TaskType.WAIT));
+        tasks.add(new Task(TaskType.LOAD, 40));
+        tasks.add(new Task(TaskType.TAKEOFF));
+        tasks.add(new Task(TaskType.AWAY));
+        tasks.add(new Task(TaskType.LAND));
+    }
+
+    @Test
+    public void replayRebuildsTowerTest() throws Exception {
+        ControlTower tower = new ControlTower();
+        //Small segments, so the journal rolls over several times
+        JournalWriter journal = new JournalWriter(directory, 4);
+        tower.setJournal(journal);
+
+        Terminal airplanes = new AirplaneTerminal(1);
+        airplanes.addGate(new Gate(10));
+        tower.addTerminal(airplanes);
+        airplanes.addGate(new Gate(11));
+        Terminal helicopters = new HelicopterTerminal(2);
+        tower.addTerminal(helicopters);
+        helicopters.addGate(new Gate(20));
+
+        Aircraft passenger = new PassengerAircraft("QFA1",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                13000, 20);
+        TaskList flying = new TaskList(tasks);
+        flying.moveToNextTask();
+        flying.moveToNextTask();
+        flying.moveToNextTask();
+        Aircraft freight = new FreightAircraft("CRG9",
+                AircraftCharacteristics.SIKORSKY_SKYCRANE, flying, 3000, 100);
+        tower.addAircraft(passenger);
+        tower.addAircraft(freight);
+
+        passenger.getTaskList().moveToNextTask();
+        tower.tick();
+        freight.declareEmergency();
+        helicopters.declareEmergency();
+        tower.tick(3);
+        tower.findGateOfAircraft(passenger).aircraftLeaves();
+        passenger.getTaskList().moveToNextTask();
+        freight.getTaskList().moveToNextTask();
+        freight.getTaskList().moveToNextTask();
+        freight.getTaskList().moveToNextTask();
+        tower.addAircraft(new PassengerAircraft("QFA2",
+                AircraftCharacteristics.BOEING_787, new TaskList(tasks),
+                500, 0));
+        helicopters.clearEmergency();
+        journal.close();
+
+        assertTrue(Files.exists(JournalWriter.segmentPath(directory, 3)));
+
+        ControlTower replayed = JournalReader.replay(directory);
+        List<Terminal> terminals = replayed.getTerminals();
+        assertEquals(2, terminals.size());
+        assertEquals(airplanes.toString(), terminals.get(0).toString());
+        assertEquals(helicopters.toString(), terminals.get(1).toString());
+
+        List<Aircraft> expected = tower.getAircraft();
+        List<Aircraft> actual = replayed.getAircraft();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(),
+                    actual.get(i).toString());
+            assertEquals(expected.get(i).getTaskList().toString(),
+                    actual.get(i).getTaskList().toString());
+            assertEquals(expected.get(i).getFuelAmount(),
+                    actual.get(i).getFuelAmount(), 0);
+            assertEquals(expected.get(i).getTotalWeight(),
+                    actual.get(i).getTotalWeight(), 0);
+        }
+        assertNull(replayed.findGateOfAircraft(actual.get(0)));
+        assertNull(replayed.findGateOfAircraft(actual.get(1)));
+        assertEquals(10, replayed.findGateOfAircraft(actual.get(2))
+                .getGateNumber());
+    }
+
+    @Test
+    public void replayInterleavedParkingTest() throws Exception {
+        Aircraft first = new PassengerAircraft("QFA1",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                13000, 20);
+        Aircraft second = new PassengerAircraft("QFA2",
+                AircraftCharacteristics.AIRBUS_A320, new TaskList(tasks),
+                13000, 20);
+        //Both are added before either parks, and the second parks first
+        try (JournalWriter journal = new JournalWriter(directory)) {
+            journal.terminalAdded(0, AircraftType.AIRPLANE, 1);
+            journal.gateAdded(0, 10);
+            journal.gateAdded(0, 11);
+            journal.aircraftAdded(0, first);
+            journal.aircraftAdded(1, second);
+            journal.aircraftParked(1, 0, 10);
+            journal.aircraftParked(0, 0, 11);
+        }
+
+        ControlTower replayed = JournalReader.replay(directory);
+        List<Aircraft> actual = replayed.getAircraft();
+        assertEquals(2, actual.size());
+        assertEquals(11, replayed.findGateOfAircraft(actual.get(0))
+                .getGateNumber());
+        assertEquals(10, replayed.findGateOfAircraft(actual.get(1))
+                .getGateNumber());
+    }
+
+    @Test
+    public void readerListsRecordsTest() throws Exception {
+        ControlTower tower = new ControlTower();
+        try (JournalWriter journal = new JournalWriter(directory)) {
+            tower.setJournal(journal);
+            tower.addTerminal(new AirplaneTerminal(7));
+            tower.tick(5);
+        }
+
+        try (JournalReader reader = new JournalReader(directory)) {
+            JournalRecord terminal = reader.next();
+            assertEquals(JournalEventType.TERMINAL_ADDED, terminal.getType());
+            assertEquals(7, terminal.getValue1());
+            JournalRecord ticked = reader.next();
+            assertEquals(JournalEventType.TICKED, ticked.getType());
+            assertEquals(5, ticked.getCount());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void attachToBusyTowerTest() throws Exception {
+        ControlTower tower = new ControlTower();
+        tower.addTerminal(new AirplaneTerminal(1));
+        try (JournalWriter journal = new JournalWriter(directory)) {
+            tower.setJournal(journal);
+        }
+    }
+}
@@ -109,4 +109,23 @@ public class TaskListTest {
         assertEquals("toString() representation did not match", expectedNext,
                 task1.toString());
     }
+
+    @Test
+    public void repeatedTaskTest() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(wait);
+        tasks.add(away);
+        tasks.add(wait);
+        tasks.add(land);
+        TaskList repeated = new TaskList(tasks);
+
+        repeated.moveToNextTask();
+        repeated.moveToNextTask();
+        assertEquals("current task did not match", wait,
+                repeated.getCurrentTask());
+        assertEquals("next task did not match", land,
+                repeated.getNextTask());
+        assertEquals("toString() representation did not match",
+                "TaskList currently on WAIT [3/4]", repeated.toString());
+    }
 }